@@ -41,7 +41,7 @@ public class Lab2 {
         List<WordWithCount> wordsList = extractWordsWithCharCount(textBuilder, targetChar);
         
         
-        wordsList.sort(Comparator.comparingInt(WordWithCount::getCharCount));
+        wordsList = sortByCharCount(wordsList);
         
         
         StringBuilder result = new StringBuilder();
@@ -53,6 +53,29 @@ public class Lab2 {
     }
     
     
+    // Стабільне сортування підрахунком: кількість уже пораховано, тож O(n + maxCount) без порівнянь
+    private static List<WordWithCount> sortByCharCount(List<WordWithCount> wordsList) {
+        int maxCount = 0;
+        for (WordWithCount word : wordsList) {
+            maxCount = Math.max(maxCount, word.getCharCount());
+        }
+        
+        int[] start = new int[maxCount + 2];
+        for (WordWithCount word : wordsList) {
+            start[word.getCharCount() + 1]++;
+        }
+        for (int c = 1; c < start.length; c++) {
+            start[c] += start[c - 1];
+        }
+        
+        WordWithCount[] sorted = new WordWithCount[wordsList.size()];
+        for (WordWithCount word : wordsList) {
+            sorted[start[word.getCharCount()]++] = word;
+        }
+        return Arrays.asList(sorted);
+    }
+    
+    
     private static List<WordWithCount> extractWordsWithCharCount(StringBuilder textBuilder, char targetChar) {
         List<WordWithCount> wordsList = new ArrayList<>();
         StringBuilder currentWord = new StringBuilder();
@@ -1,8 +1,32 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Основний клас для демонстрації Лабораторної роботи №4 (ООП).
@@ -17,8 +41,11 @@ public class Main {
     
     /**
      * Клас, що представляє одну літеру в тексті.
+     * Об'єкти незмінні, тому для латиниці та кирилиці використовуються спільні екземпляри (Letter.of).
      */
     private static class Letter {
+        private static final Letter[] CACHE = new Letter[0x0500]; // ASCII, латиниця-1 та кирилиця
+
         private final char value;
 
         /**
@@ -27,6 +54,23 @@ public class Main {
          */
         public Letter(char value) { this.value = value; }
 
+        /**
+         * Повертає спільний екземпляр літери (flyweight) замість створення нового об'єкта.
+         * @param value Символьне значення літери.
+         * @return Об'єкт Letter.
+         */
+        public static Letter of(char value) {
+            if (value >= CACHE.length) {
+                return new Letter(value);
+            }
+            Letter letter = CACHE[value];
+            if (letter == null) {
+                // Гонка між потоками безпечна: об'єкт незмінний, у гіршому разі створиться двічі
+                letter = CACHE[value] = new Letter(value);
+            }
+            return letter;
+        }
+
         /**
          * Повертає символьне значення літери.
          * @return Символ літери.
@@ -39,8 +83,18 @@ public class Main {
 
     /**
      * Клас, що представляє розділовий знак в тексті.
+     * Для ASCII-знаків використовуються спільні екземпляри (Punctuation.of).
      */
     private static class Punctuation {
+        private static final Punctuation[] CACHE = new Punctuation[128];
+        private static final boolean[] ASCII_PUNCT = new boolean[128]; // Таблиця для \p{Punct}
+
+        static {
+            for (char c : "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~".toCharArray()) {
+                ASCII_PUNCT[c] = true;
+            }
+        }
+
         private final char value;
 
         /**
@@ -49,6 +103,31 @@ public class Main {
          */
         public Punctuation(char value) { this.value = value; }
 
+        /**
+         * Повертає спільний екземпляр розділового знака (flyweight).
+         * @param value Символьне значення розділового знака.
+         * @return Об'єкт Punctuation.
+         */
+        public static Punctuation of(char value) {
+            if (value >= CACHE.length) {
+                return new Punctuation(value);
+            }
+            Punctuation punctuation = CACHE[value];
+            if (punctuation == null) {
+                punctuation = CACHE[value] = new Punctuation(value);
+            }
+            return punctuation;
+        }
+
+        /**
+         * Перевіряє, чи є символ розділовим знаком (те саме, що regex \p{Punct}: лише ASCII-знаки).
+         * @param c Символ для перевірки.
+         * @return true, якщо символ — розділовий знак.
+         */
+        public static boolean isPunctuation(char c) {
+            return c < 128 && ASCII_PUNCT[c];
+        }
+
         /**
          * Повертає символьне значення розділового знака.
          * @return Символ розділового знака.
@@ -65,20 +144,70 @@ public class Main {
     
     /**
      * Клас, що представляє слово в тексті.
-     * Складається зі списку об'єктів Letter (Композиція).
+     * Складається з літер (Композиція), але не зберігає їх окремими об'єктами:
+     * слово — це ділянка [start, end) спільного вихідного тексту, а об'єкти Letter
+     * видаються на вимогу як спільні екземпляри (Letter.of).
      */
     private static class Word {
-        private final List<Letter> letters;
+        private final CharSequence source;
+        private final int start;
+        private final int end;
+        private String cached; // Рядок слова, створюється лише при першому toString()
 
         /**
          * Конструктор для створення об'єкта Word з рядка.
          * @param wordString Вхідний рядок, що представляє слово.
          */
         public Word(String wordString) {
-            this.letters = new ArrayList<>();
-            for (char c : wordString.toCharArray()) {
-                this.letters.add(new Letter(c));
+            this(wordString, 0, wordString.length());
+        }
+
+        /**
+         * Конструктор для створення слова як ділянки вихідного тексту (без копіювання символів).
+         * @param source Вихідний текст.
+         * @param start Початок слова (включно).
+         * @param end Кінець слова (не включно).
+         */
+        public Word(CharSequence source, int start, int end) {
+            if (start < 0 || end > source.length() || start > end) {
+                throw new IndexOutOfBoundsException("Некоректні межі слова: " + start + ".." + end);
+            }
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Повертає кількість літер у слові.
+         */
+        public int length() {
+            return end - start;
+        }
+
+        /**
+         * Повертає літеру за індексом (спільний екземпляр).
+         * @param index Позиція літери у слові.
+         * @return Об'єкт Letter.
+         */
+        public Letter getLetter(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Індекс літери: " + index);
             }
+            return Letter.of(source.charAt(start + index));
+        }
+
+        /**
+         * Повертає літери слова як список-представлення (без копіювання).
+         * @return Список об'єктів Letter.
+         */
+        public List<Letter> getLetters() {
+            return new AbstractList<Letter>() {
+                @Override
+                public Letter get(int index) { return getLetter(index); }
+
+                @Override
+                public int size() { return length(); }
+            };
         }
 
         /**
@@ -89,8 +218,8 @@ public class Main {
         public int countTargetChar(char targetChar) {
             int count = 0;
             char lowerTarget = Character.toLowerCase(targetChar);
-            for (Letter letter : letters) {
-                if (Character.toLowerCase(letter.getValue()) == lowerTarget) {
+            for (int i = start; i < end; i++) {
+                if (Character.toLowerCase(source.charAt(i)) == lowerTarget) {
                     count++;
                 }
             }
@@ -98,15 +227,25 @@ public class Main {
         }
 
         /**
-         * Повертає рядкове представлення слова.
+         * Дописує слово до StringBuilder без створення проміжного рядка.
+         * @param sb Куди дописати.
+         * @return Той самий StringBuilder.
+         */
+        public StringBuilder appendTo(StringBuilder sb) {
+            return sb.append(source, start, end);
+        }
+
+        /**
+         * Повертає рядкове представлення слова (створюється один раз і кешується).
          */
         @Override
         public String toString() {
-            StringBuilder sb = new StringBuilder();
-            for (Letter letter : letters) {
-                sb.append(letter.getValue());
+            String s = cached;
+            if (s == null) {
+                s = source.subSequence(start, end).toString();
+                cached = s;
             }
-            return sb.toString();
+            return s;
         }
     }
 
@@ -168,7 +307,7 @@ public class Main {
                     if (sb.length() > 0 && !isPunctuation(sb.charAt(sb.length() - 1))) {
                         sb.append(" ");
                     }
-                    sb.append(part.toString());
+                    ((Word) part).appendTo(sb);
                 } else if (part instanceof Punctuation) {
                     char puncChar = ((Punctuation) part).getValue();
                     
@@ -188,7 +327,7 @@ public class Main {
          */
         private boolean isPunctuation(char c) {
             // Перевіряємо, чи символ є загальною пунктуацією, що вимагає прилягання
-            return Pattern.matches("\\p{Punct}", String.valueOf(c));
+            return Punctuation.isPunctuation(c);
         }
     }
 
@@ -244,6 +383,114 @@ public class Main {
     // 5. Клас TextProcessor (Логіка обробки та парсингу)
     // =========================================================================
 
+    /**
+     * Токенізатор: розбирає текст на речення, слова та розділові знаки за один прохід,
+     * без регулярних виразів і без копіювання символів (слова посилаються на вихідний текст).
+     * Правила ті самі, що й у попереднього regex-розбору:
+     *  - слово — максимальна послідовність кириличних літер (\u0400-\u04FF) та апострофів;
+     *    послідовність з одного апострофа — розділовий знак;
+     *  - розділовий знак — ASCII-символ з \p{Punct};
+     *  - речення закінчується після кожного '.', '!' або '?';
+     *  - інші символи (пробіли, латиниця, цифри) пропускаються;
+     *  - речення без жодного слова відкидаються.
+     */
+    private static class Tokenizer {
+
+        /**
+         * Розбирає весь текст.
+         * @param input Вхідний текст.
+         * @return Об'єкт Text.
+         */
+        public Text tokenize(CharSequence input) {
+            Text text = new Text();
+            tokenize(input, 0, input.length(), true, new State(), text::addSentence);
+            return text;
+        }
+
+        /**
+         * Стан розбору між ділянками: незавершене речення та кількість його символів.
+         */
+        static final class State {
+            private Sentence sentence = new Sentence();
+            private boolean hasWords;
+            private int length;
+
+            /**
+             * @return Кількість уже розібраних символів незавершеного речення.
+             */
+            int length() {
+                return length;
+            }
+
+            /**
+             * Завершує поточне речення: передає його споживачу (якщо в ньому є слова) і починає нове.
+             */
+            void flush(Consumer<Sentence> sink) {
+                if (hasWords) {
+                    sink.accept(sentence);
+                }
+                sentence = new Sentence();
+                hasWords = false;
+                length = 0;
+            }
+        }
+
+        /**
+         * Розбирає ділянку [from, to) тексту і передає кожне завершене речення споживачу.
+         * Розбір продовжує речення, накопичене у state попередніми викликами. Якщо last == false,
+         * незавершене речення лишається у state, а слово, що впирається в кінець ділянки,
+         * не розбирається: повертається позиція його початку, щоб дочитати його з наступною ділянкою.
+         * @param input Вхідний текст.
+         * @param from Початок ділянки.
+         * @param to Кінець ділянки.
+         * @param last Чи є ця ділянка кінцем тексту.
+         * @param state Стан розбору між ділянками.
+         * @param sink Споживач речень (лише речень зі словами).
+         * @return Позиція початку нерозібраного залишку (to, якщо все розібрано).
+         */
+        public int tokenize(CharSequence input, int from, int to, boolean last, State state, Consumer<Sentence> sink) {
+            int sentenceStart = from;
+            int i = from;
+            while (i < to) {
+                char c = input.charAt(i);
+                if (isWordChar(c)) {
+                    int end = i + 1;
+                    while (end < to && isWordChar(input.charAt(end))) {
+                        end++;
+                    }
+                    if (end == to && !last) {
+                        break; // Слово може продовжуватись у наступній ділянці
+                    }
+                    if (end - i == 1 && c == '\'') {
+                        state.sentence.addPart(Punctuation.of(c));
+                    } else {
+                        state.sentence.addPart(new Word(input, i, end));
+                        state.hasWords = true;
+                    }
+                    i = end;
+                    continue;
+                }
+                if (Punctuation.isPunctuation(c)) {
+                    state.sentence.addPart(Punctuation.of(c));
+                    if (c == '.' || c == '!' || c == '?') {
+                        state.flush(sink);
+                        sentenceStart = i + 1;
+                    }
+                }
+                i++;
+            }
+            state.length += i - sentenceStart;
+            if (last) {
+                state.flush(sink);
+            }
+            return i;
+        }
+
+        private static boolean isWordChar(char c) {
+            return (c >= '\u0400' && c <= '\u04FF') || c == '\'';
+        }
+    }
+
     /**
      * Клас, що містить логіку обробки тексту, включаючи парсинг та сортування.
      */
@@ -260,11 +507,9 @@ public class Main {
                 throw new IllegalArgumentException("Вхідний текст не може бути порожнім.");
             }
 
-            // 1. Очищення тексту від зайвих пробілів/табуляцій.
-            String cleanedText = inputText.replaceAll("[\\s\t]+", " ").trim();
-
-            // 2. Розбір тексту на об'єктну модель.
-            Text text = parseText(cleanedText);
+            // 1-2. Розбір тексту на об'єктну модель (пробіли та табуляції токенізатор пропускає сам,
+            // тому окреме очищення тексту не потрібне).
+            Text text = parseText(inputText);
 
             // 3. Збір та сортування всіх слів тексту.
             List<Word> allWords = new ArrayList<>();
@@ -272,16 +517,22 @@ public class Main {
                 allWords.addAll(sentence.getWords());
             }
 
-            // Сортування слів за зростанням кількості входжень цільового символу.
-            allWords.sort(Comparator.comparingInt(word -> word.countTargetChar(targetChar)));
+            // Кількість цільового символу рахується для кожного слова рівно один раз.
+            int[] counts = new int[allWords.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = allWords.get(i).countTargetChar(targetChar);
+            }
+
+            // Сортування слів за зростанням кількості входжень цільового символу (стабільне, підрахунком).
+            int[] order = sortByCount(counts);
 
             // 4. Формування рядка результату сортування (вимога Lab2)
             System.out.println("\n--- Результат сортування (завдання Lab2) ---");
             StringBuilder result = new StringBuilder();
-            for (Word word : allWords) {
-                result.append(word.toString())
+            for (int index : order) {
+                allWords.get(index).appendTo(result)
                       .append(" (")
-                      .append(word.countTargetChar(targetChar))
+                      .append(counts[index])
                       .append(") ");
             }
             System.out.println(result.toString().trim());
@@ -292,55 +543,580 @@ public class Main {
 
         /**
          * Розбирає вхідний рядок тексту на об'єкти Text, Sentence, Word, Punctuation.
-         * @param cleanedText Вхідний рядок тексту після очищення.
+         * @param inputText Вхідний рядок тексту.
          * @return Об'єкт Text.
          */
-        private Text parseText(String cleanedText) {
-            Text text = new Text();
-            
-            // Регулярний вираз для розділення тексту на речення.
-            String[] sentenceStrings = cleanedText.split("(?<=[.!?])\\s*");
-            
-            // Регулярний вираз для розділення речення на слова та розділові знаки.
-            // [\u0400-\u04FF\u0450-\u045F']+: захоплює кириличні літери та апостроф (слова).
-            // \p{Punct}: захоплює розділовий знак.
-            Pattern partPattern = Pattern.compile("([\u0400-\u04FF\u0450-\u045F']+|\\p{Punct})");
+        private Text parseText(String inputText) {
+            return new Tokenizer().tokenize(inputText);
+        }
 
-            for (String sentenceString : sentenceStrings) {
-                if (sentenceString.trim().isEmpty()) {
-                    continue;
+        /**
+         * Стабільне сортування підрахунком за невід'ємними ключами: O(n + maxCount)
+         * замість O(n log n) порівнянь.
+         * @param counts Ключ (кількість цільового символу) для кожного елемента.
+         * @return Індекси елементів у порядку зростання ключа (рівні — у вихідному порядку).
+         */
+        static int[] sortByCount(int[] counts) {
+            int max = 0;
+            for (int count : counts) {
+                max = Math.max(max, count);
+            }
+            // start[c] — позиція першого елемента з ключем c у результаті
+            int[] start = new int[max + 2];
+            for (int count : counts) {
+                start[count + 1]++;
+            }
+            for (int c = 1; c < start.length; c++) {
+                start[c] += start[c - 1];
+            }
+            int[] order = new int[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                order[start[counts[i]]++] = i;
+            }
+            return order;
+        }
+    }
+
+    /**
+     * Потокова обробка тексту, що не вміщується в пам'ять.
+     * Текст читається шматками (Reader або FileChannel), речення видаються по мірі розбору
+     * через Consumer або Stream, а сортування слів за кількістю цільового символу виконується
+     * зовнішнім сортуванням злиттям: відсортовані серії пар (кількість, слово) скидаються
+     * у тимчасові файли і потім зливаються. У пам'яті одночасно — лише одна серія.
+     */
+    private static class StreamingTextProcessor {
+        private static final int DEFAULT_CHUNK_SIZE = 1 << 16;  // Символів на шматок читання
+        private static final int DEFAULT_RUN_SIZE = 1 << 18;    // Слів в одній серії сортування
+        private static final int MAX_MERGE_WAY = 64;            // Скільки серій зливається одночасно
+        private static final int DEFAULT_MAX_SENTENCE_LENGTH = 1 << 20; // Символів в одному реченні
+
+        private final int chunkSize;
+        private final int runSize;
+        private final int maxSentenceLength;
+        private final Path tempDir;
+        private final Tokenizer tokenizer = new Tokenizer();
+
+        /**
+         * Конструктор з параметрами за замовчуванням (тимчасові файли — у системному каталозі).
+         */
+        public StreamingTextProcessor() {
+            this(DEFAULT_CHUNK_SIZE, DEFAULT_RUN_SIZE, null);
+        }
+
+        /**
+         * @param chunkSize Кількість символів, що читаються за раз.
+         * @param runSize Максимальна кількість слів у серії (обмежує пам'ять сортування).
+         * @param tempDir Каталог для тимчасових файлів (null — системний).
+         */
+        public StreamingTextProcessor(int chunkSize, int runSize, Path tempDir) {
+            this(chunkSize, runSize, DEFAULT_MAX_SENTENCE_LENGTH, tempDir);
+        }
+
+        /**
+         * @param chunkSize Кількість символів, що читаються за раз.
+         * @param runSize Максимальна кількість слів у серії (обмежує пам'ять сортування).
+         * @param maxSentenceLength Довжина, після якої незавершене речення видається примусово
+         *                          (текст без .!? не накопичується в пам'яті без меж).
+         * @param tempDir Каталог для тимчасових файлів (null — системний).
+         */
+        public StreamingTextProcessor(int chunkSize, int runSize, int maxSentenceLength, Path tempDir) {
+            if (chunkSize <= 0 || runSize <= 0 || maxSentenceLength <= 0) {
+                throw new IllegalArgumentException("Розміри шматка, серії та речення мають бути додатними.");
+            }
+            this.chunkSize = chunkSize;
+            this.runSize = runSize;
+            this.maxSentenceLength = maxSentenceLength;
+            this.tempDir = tempDir;
+        }
+
+        /**
+         * Передає споживачу кожне речення тексту по мірі читання.
+         * @param reader Джерело тексту (закриває викликач).
+         * @param sink Споживач речень.
+         */
+        public void forEachSentence(Reader reader, Consumer<Sentence> sink) throws IOException {
+            SentenceSource source = new SentenceSource(reader);
+            Sentence sentence;
+            while ((sentence = source.next()) != null) {
+                sink.accept(sentence);
+            }
+        }
+
+        /**
+         * Читає файл через FileChannel і передає споживачу кожне речення.
+         * @param file Шлях до файлу.
+         * @param charset Кодування файлу.
+         * @param sink Споживач речень.
+         */
+        public void forEachSentence(Path file, Charset charset, Consumer<Sentence> sink) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                 Reader reader = Channels.newReader(channel, charset)) {
+                forEachSentence(reader, sink);
+            }
+        }
+
+        /**
+         * Повертає ліниві речення тексту як Stream: текст дочитується лише при запиті наступних речень.
+         * Помилки читання передаються як UncheckedIOException.
+         * @param reader Джерело тексту (закриває викликач).
+         * @return Потік речень.
+         */
+        public Stream<Sentence> sentences(Reader reader) {
+            SentenceSource source = new SentenceSource(reader);
+            Spliterator<Sentence> spliterator = new Spliterators.AbstractSpliterator<Sentence>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Sentence> action) {
+                    try {
+                        Sentence sentence = source.next();
+                        if (sentence == null) {
+                            return false;
+                        }
+                        action.accept(sentence);
+                        return true;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
                 }
-                Sentence sentence = new Sentence();
-                Matcher matcher = partPattern.matcher(sentenceString);
-                
-                while (matcher.find()) {
-                    String part = matcher.group(1);
-                    
-                    if (isPunctuation(part)) {
-                        // Створюємо об'єкт Punctuation
-                        sentence.addPart(new Punctuation(part.charAt(0)));
-                    } else if (!part.trim().isEmpty()) {
-                        // Створюємо об'єкт Word
-                        sentence.addPart(new Word(part));
+            };
+            return StreamSupport.stream(spliterator, false);
+        }
+
+        /**
+         * Сортує всі слова тексту за зростанням кількості цільового символу (стабільно, як processText)
+         * і записує результат у форматі "слово (кількість) слово (кількість) ...".
+         * @param reader Джерело тексту.
+         * @param targetChar Цільовий символ.
+         * @param out Куди записати результат.
+         * @return Кількість слів.
+         */
+        public long sortWords(Reader reader, char targetChar, Appendable out) throws IOException {
+            List<Path> tempFiles = new ArrayList<>(); // Усі створені файли: видаляються навіть при помилці
+            List<Path> runs = new ArrayList<>();
+            List<WordCount> run = new ArrayList<>();
+            long total = 0;
+            try {
+                SentenceSource source = new SentenceSource(reader);
+                Sentence sentence;
+                while ((sentence = source.next()) != null) {
+                    for (Word word : sentence.getWords()) {
+                        run.add(new WordCount(word.toString(), word.countTargetChar(targetChar)));
+                        total++;
+                        if (run.size() == runSize) {
+                            runs.add(spill(run, tempFiles));
+                            run.clear();
+                        }
+                    }
+                }
+                if (runs.isEmpty()) {
+                    // Усе вмістилось в одну серію — диск не потрібен
+                    sortRun(run);
+                    boolean first = true;
+                    for (WordCount wc : run) {
+                        first = write(out, wc.word, wc.count, first);
                     }
+                    return total;
                 }
-                
-                if (!sentence.getWords().isEmpty()) {
-                    text.addSentence(sentence);
+                if (!run.isEmpty()) {
+                    runs.add(spill(run, tempFiles));
+                    run.clear();
                 }
+                // Зливаємо сусідні групи серій, доки їх не стане достатньо мало для одного злиття
+                while (runs.size() > MAX_MERGE_WAY) {
+                    List<Path> merged = new ArrayList<>();
+                    for (int i = 0; i < runs.size(); i += MAX_MERGE_WAY) {
+                        List<Path> group = runs.subList(i, Math.min(i + MAX_MERGE_WAY, runs.size()));
+                        Path target = createTempFile(tempFiles);
+                        try (DataOutputStream output = openOutput(target)) {
+                            merge(group, (word, count) -> writeRecord(output, word, count));
+                        }
+                        deleteAll(group);
+                        merged.add(target);
+                    }
+                    runs = merged;
+                }
+                boolean[] first = {true};
+                merge(runs, (word, count) -> first[0] = write(out, word, count, first[0]));
+                return total;
+            } finally {
+                deleteAll(tempFiles);
             }
+        }
 
-            return text;
+        /**
+         * Стабільно сортує серію за кількістю цільового символу (підрахунком, O(n + maxCount)).
+         */
+        private void sortRun(List<WordCount> run) {
+            int[] counts = new int[run.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = run.get(i).count;
+            }
+            WordCount[] items = run.toArray(new WordCount[0]);
+            int[] order = TextProcessor.sortByCount(counts);
+            for (int i = 0; i < order.length; i++) {
+                run.set(i, items[order[i]]);
+            }
+        }
+
+        private Path spill(List<WordCount> run, List<Path> tempFiles) throws IOException {
+            sortRun(run);
+            Path file = createTempFile(tempFiles);
+            try (DataOutputStream output = openOutput(file)) {
+                for (WordCount wc : run) {
+                    writeRecord(output, wc.word, wc.count);
+                }
+            }
+            return file;
+        }
+
+        /**
+         * k-шляхове злиття серій. За рівної кількості перевага серії з меншим номером,
+         * тому порядок рівних слів збігається з порядком у тексті (стабільність).
+         */
+        private void merge(List<Path> runs, RecordSink sink) throws IOException {
+            List<RunReader> readers = new ArrayList<>(runs.size());
+            try {
+                PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                        Comparator.comparingInt((RunReader r) -> r.count).thenComparingInt(r -> r.index));
+                for (int i = 0; i < runs.size(); i++) {
+                    RunReader reader = new RunReader(runs.get(i), i);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    }
+                }
+                while (!queue.isEmpty()) {
+                    RunReader reader = queue.poll();
+                    sink.accept(reader.word, reader.count);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    }
+                }
+            } finally {
+                for (RunReader reader : readers) {
+                    reader.close();
+                }
+            }
+        }
+
+        /**
+         * Створює тимчасовий файл і одразу реєструє його у tempFiles, щоб він не загубився,
+         * якщо запис чи злиття обірветься виключенням.
+         */
+        private Path createTempFile(List<Path> tempFiles) throws IOException {
+            Path file = tempDir == null ? Files.createTempFile("words-run", ".bin")
+                                        : Files.createTempFile(tempDir, "words-run", ".bin");
+            tempFiles.add(file);
+            return file;
+        }
+
+        private static DataOutputStream openOutput(Path file) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        }
+
+        private static void writeRecord(DataOutputStream output, String word, int count) throws IOException {
+            output.writeInt(count);
+            output.writeInt(word.length());
+            output.writeChars(word);
+        }
+
+        private static boolean write(Appendable out, String word, int count, boolean first) throws IOException {
+            if (!first) {
+                out.append(' ');
+            }
+            out.append(word).append(" (").append(Integer.toString(count)).append(')');
+            return false;
+        }
+
+        /**
+         * Видаляє всі файли; помилка видалення одного файлу не зупиняє видалення решти.
+         */
+        private static void deleteAll(List<Path> files) throws IOException {
+            IOException failure = null;
+            for (Path file : files) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Приймач записів (слово, кількість), що може кидати IOException.
+         */
+        private interface RecordSink {
+            void accept(String word, int count) throws IOException;
+        }
+
+        /**
+         * Пара (слово, кількість цільового символу).
+         */
+        private static class WordCount {
+            private final String word;
+            private final int count;
+
+            WordCount(String word, int count) {
+                this.word = word;
+                this.count = count;
+            }
         }
 
         /**
-         * Перевіряє, чи є рядок розділовим знаком.
+         * Послідовне читання однієї серії з файлу.
          */
-        private boolean isPunctuation(String part) {
-            return part.length() == 1 && Pattern.matches("\\p{Punct}", part);
+        private static class RunReader implements AutoCloseable {
+            private final DataInputStream input;
+            private final int index;
+            private char[] chars = new char[32];
+            private String word;
+            private int count;
+
+            RunReader(Path file, int index) throws IOException {
+                this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+                this.index = index;
+            }
+
+            /**
+             * Читає наступний запис.
+             * @return false, якщо серія закінчилась.
+             */
+            boolean advance() throws IOException {
+                try {
+                    count = input.readInt();
+                } catch (EOFException e) {
+                    return false;
+                }
+                int length = input.readInt();
+                if (length > chars.length) {
+                    chars = new char[Math.max(length, chars.length * 2)];
+                }
+                for (int i = 0; i < length; i++) {
+                    chars[i] = input.readChar();
+                }
+                word = new String(chars, 0, length);
+                return true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                input.close();
+            }
+        }
+
+        /**
+         * Читає текст шматками і видає завершені речення. Розбір кожного шматка продовжується
+         * з того місця, де зупинився попередній: незавершене речення зберігається у стані
+         * токенізатора, а на початок наступного шматка переноситься лише недочитане слово.
+         * Речення, довше за maxSentenceLength символів, видається частинами.
+         */
+        private class SentenceSource {
+            private final Reader reader;
+            private final char[] buffer = new char[chunkSize];
+            private final ArrayDeque<Sentence> ready = new ArrayDeque<>();
+            private final Tokenizer.State state = new Tokenizer.State();
+            private String carry = ""; // Недочитане слово з кінця попереднього шматка
+            private boolean finished;
+
+            SentenceSource(Reader reader) {
+                this.reader = reader;
+            }
+
+            /**
+             * @return Наступне речення або null, якщо текст закінчився.
+             */
+            Sentence next() throws IOException {
+                while (ready.isEmpty() && !finished) {
+                    int n = reader.read(buffer);
+                    finished = n < 0;
+                    String chunk = finished ? carry : carry.concat(new String(buffer, 0, n));
+                    int rest = tokenizer.tokenize(chunk, 0, chunk.length(), finished, state, ready::add);
+                    carry = chunk.substring(rest);
+                    if (state.length() + carry.length() > maxSentenceLength) {
+                        // Примусово завершуємо задовге речення разом із недочитаним словом
+                        tokenizer.tokenize(carry, 0, carry.length(), true, state, ready::add);
+                        carry = "";
+                    }
+                }
+                return ready.poll();
+            }
         }
     }
-    
+
+    /**
+     * Гістограми символів для всіх слів тексту одночасно (без урахування регістру).
+     * Будується за один прохід по тексту; для кожного символу зберігається компактний
+     * список "номер слова — кількість" у спільних примітивних масивах (формат CSR:
+     * offsets[slot]..offsets[slot+1] — діапазон записів символу в wordIds / counts).
+     * Після цього сортування слів за кількістю будь-якого символу — O(n + maxCount)
+     * без повторного розбору тексту, а для заданого алфавіту порядки можна обчислити наперед.
+     */
+    private static class CharHistogramIndex {
+        private final List<Word> words;
+        private final int[] slotOf = new int[Character.MAX_VALUE + 1]; // Символ (у нижньому регістрі) -> номер слота + 1
+        private final char[] slotChars;
+        private final int[] offsets;
+        private final int[] wordIds;
+        private final int[] counts;
+        private final Map<Character, int[]> precomputed = new HashMap<>();
+
+        /**
+         * Будує гістограми для всіх слів тексту.
+         * @param text Розібраний текст.
+         */
+        public CharHistogramIndex(Text text) {
+            this.words = new ArrayList<>();
+            for (Sentence sentence : text.getSentences()) {
+                words.addAll(sentence.getWords());
+            }
+
+            // Один прохід: для кожного символу накопичуємо записи (слово, кількість) у порядку слів
+            List<int[]> slotIds = new ArrayList<>();
+            List<int[]> slotCounts = new ArrayList<>();
+            int[] slotSizes = new int[16];
+            StringBuilder chars = new StringBuilder();
+            int total = 0;
+            for (int w = 0; w < words.size(); w++) {
+                Word word = words.get(w);
+                for (int k = 0, n = word.length(); k < n; k++) {
+                    char c = Character.toLowerCase(word.getLetter(k).getValue());
+                    int slot = slotOf[c] - 1;
+                    if (slot < 0) {
+                        slot = slotIds.size();
+                        slotOf[c] = slot + 1;
+                        chars.append(c);
+                        slotIds.add(new int[4]);
+                        slotCounts.add(new int[4]);
+                        if (slot == slotSizes.length) {
+                            slotSizes = Arrays.copyOf(slotSizes, slot * 2);
+                        }
+                    }
+                    int size = slotSizes[slot];
+                    int[] ids = slotIds.get(slot);
+                    if (size > 0 && ids[size - 1] == w) {
+                        slotCounts.get(slot)[size - 1]++; // Символ уже зустрічався в цьому слові
+                        continue;
+                    }
+                    if (size == ids.length) {
+                        slotIds.set(slot, ids = Arrays.copyOf(ids, size * 2));
+                        slotCounts.set(slot, Arrays.copyOf(slotCounts.get(slot), size * 2));
+                    }
+                    ids[size] = w;
+                    slotCounts.get(slot)[size] = 1;
+                    slotSizes[slot] = size + 1;
+                    total++;
+                }
+            }
+
+            // Пакуємо списки у три суцільні масиви
+            int slots = slotIds.size();
+            this.slotChars = chars.toString().toCharArray();
+            this.offsets = new int[slots + 1];
+            this.wordIds = new int[total];
+            this.counts = new int[total];
+            for (int slot = 0; slot < slots; slot++) {
+                int size = slotSizes[slot];
+                System.arraycopy(slotIds.get(slot), 0, wordIds, offsets[slot], size);
+                System.arraycopy(slotCounts.get(slot), 0, counts, offsets[slot], size);
+                offsets[slot + 1] = offsets[slot] + size;
+            }
+        }
+
+        /**
+         * Повертає всі слова тексту (номер слова — позиція в цьому списку).
+         */
+        public List<Word> getWords() {
+            return words;
+        }
+
+        /**
+         * Повертає символи, що зустрічаються в тексті (у нижньому регістрі).
+         */
+        public char[] getAlphabet() {
+            return slotChars.clone();
+        }
+
+        /**
+         * Кількість входжень символу у слово (бінарний пошук у списку символу).
+         * @param wordId Номер слова.
+         * @param targetChar Цільовий символ.
+         */
+        public int count(int wordId, char targetChar) {
+            int slot = slotOf[Character.toLowerCase(targetChar)] - 1;
+            if (slot < 0) {
+                return 0;
+            }
+            int i = Arrays.binarySearch(wordIds, offsets[slot], offsets[slot + 1], wordId);
+            return i >= 0 ? counts[i] : 0;
+        }
+
+        /**
+         * Кількість входжень символу в кожне слово тексту.
+         * @param targetChar Цільовий символ.
+         * @return Масив кількостей за номерами слів.
+         */
+        public int[] countsFor(char targetChar) {
+            int[] result = new int[words.size()];
+            int slot = slotOf[Character.toLowerCase(targetChar)] - 1;
+            if (slot >= 0) {
+                for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+                    result[wordIds[i]] = counts[i];
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Номери слів, стабільно впорядковані за зростанням кількості символу (O(n + maxCount)).
+         * Для символів з precompute порядок береться готовим.
+         * @param targetChar Цільовий символ.
+         */
+        public int[] order(char targetChar) {
+            int[] cached = precomputed.get(Character.toLowerCase(targetChar));
+            if (cached != null) {
+                return cached.clone();
+            }
+            return TextProcessor.sortByCount(countsFor(targetChar));
+        }
+
+        /**
+         * Обчислює й запам'ятовує порядки для всіх символів алфавіту.
+         * @param alphabet Символи, для яких потрібні готові порядки.
+         */
+        public void precompute(CharSequence alphabet) {
+            for (int i = 0; i < alphabet.length(); i++) {
+                char c = Character.toLowerCase(alphabet.charAt(i));
+                if (!precomputed.containsKey(c)) {
+                    precomputed.put(c, TextProcessor.sortByCount(countsFor(c)));
+                }
+            }
+        }
+
+        /**
+         * Формує рядок "слово (кількість) ..." як у processText, але без повторного розбору тексту.
+         * @param targetChar Цільовий символ.
+         * @return Слова, відсортовані за кількістю символу.
+         */
+        public String formatSorted(char targetChar) {
+            int[] wordCounts = countsFor(targetChar);
+            StringBuilder sb = new StringBuilder();
+            for (int index : order(targetChar)) {
+                words.get(index).appendTo(sb)
+                        .append(" (")
+                        .append(wordCounts[index])
+                        .append(") ");
+            }
+            return sb.toString().trim();
+        }
+    }
+
     // =========================================================================
     // 6. Виконавчий метод MAIN
     // =========================================================================
@@ -370,6 +1146,29 @@ public class Main {
             );
             System.out.println("--------------------------");
 
+            // Потоковий режим: текст читається шматками, сортування — зовнішнім злиттям серій
+            // (тут навмисно крихітні шматки та серії, щоб задіяти перенесення та тимчасові файли)
+            System.out.println("\n--- Потокова обробка ---");
+            StreamingTextProcessor streaming = new StreamingTextProcessor(16, 8, null);
+            long sentenceCount;
+            try (Stream<Sentence> sentences = streaming.sentences(new StringReader(inputText))) {
+                sentenceCount = sentences.count();
+            }
+            StringBuilder sorted = new StringBuilder();
+            long wordCount = streaming.sortWords(new StringReader(inputText), targetChar, sorted);
+            System.out.println("Речень: " + sentenceCount + ", слів: " + wordCount);
+            System.out.println(sorted);
+            System.out.println("--------------------------");
+
+            // Гістограми символів: один розбір тексту — сортування за будь-яким символом
+            System.out.println("\n--- Сортування за кількома символами ---");
+            CharHistogramIndex histograms = new CharHistogramIndex(processedText);
+            histograms.precompute("роа");
+            for (char c : "роа".toCharArray()) {
+                System.out.println("'" + c + "': " + histograms.formatSorted(c));
+            }
+            System.out.println("--------------------------");
+
         } catch (Exception e) {
             System.err.println("Сталася помилка: " + e.getMessage());
             e.printStackTrace();
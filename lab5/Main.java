@@ -1,7 +1,39 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
 
 // ==========================================
 // 1. КЛАСИ ВИКЛЮЧЕНЬ (CUSTOM EXCEPTIONS)
@@ -39,6 +71,7 @@ abstract class Coffee {
     private double weight;      // Вага (кг)
     private double volume;      // Обсяг з упаковкою (літри або м^3)
     private int quality;        // Якість (рейтинг, наприклад від 1 до 100)
+    private final double priceToWeightRatio; // Ключ сортування, обчислюється один раз
 
     /**
      * Конструктор для ініціалізації кави.
@@ -55,6 +88,7 @@ abstract class Coffee {
         this.weight = weight;
         this.volume = volume;
         this.quality = quality;
+        this.priceToWeightRatio = weight == 0 ? 0 : price / weight;
     }
 
     public String getName() { return name; }
@@ -66,12 +100,12 @@ abstract class Coffee {
     /**
      * Розраховує співвідношення ціни до ваги.
      * Використовується для сортування згідно із завданням.
+     * Значення обчислюється в конструкторі, тож порівняння під час сортування не виконують ділення.
      *
      * @return Вартість одного кілограма даного товару.
      */
     public double getPriceToWeightRatio() {
-        if (weight == 0) return 0;
-        return price / weight;
+        return priceToWeightRatio;
     }
 
     @Override
@@ -115,103 +149,2704 @@ class InstantCoffee extends Coffee {
 }
 
 // ==========================================
-// 3. КЛАС-КОНТЕЙНЕР
+// 3. ПОДІЇ ФУРГОНА (EVENT SINK)
 // ==========================================
 
+/**
+ * Слухач подій фургона: завантаження, відмови, сортування та пошук.
+ * Усі методи мають порожню реалізацію, тож достатньо перевизначити потрібні.
+ * Методи викликаються в потоці, що виконує операцію, тому мають бути швидкими.
+ */
+interface VanEventListener {
+
+    /**
+     * Слухач, що нічого не робить (використовується фургоном за замовчуванням).
+     */
+    VanEventListener NO_OP = new VanEventListener() { };
+
+    default void onLoad(Van van, Coffee coffee) { }
+
+    default void onReject(Van van, Coffee coffee, LoadResult reason) { }
+
+    default void onSort(Van van, int cargoSize) { }
+
+    default void onSearch(Van van, int minQuality, int maxQuality, int found) { }
+
+    /**
+     * Об'єднує двох слухачів: події передаються обом по черзі.
+     */
+    static VanEventListener compose(VanEventListener first, VanEventListener second) {
+        Objects.requireNonNull(first);
+        Objects.requireNonNull(second);
+        return new VanEventListener() {
+            @Override
+            public void onLoad(Van van, Coffee coffee) {
+                first.onLoad(van, coffee);
+                second.onLoad(van, coffee);
+            }
+
+            @Override
+            public void onReject(Van van, Coffee coffee, LoadResult reason) {
+                first.onReject(van, coffee, reason);
+                second.onReject(van, coffee, reason);
+            }
+
+            @Override
+            public void onSort(Van van, int cargoSize) {
+                first.onSort(van, cargoSize);
+                second.onSort(van, cargoSize);
+            }
+
+            @Override
+            public void onSearch(Van van, int minQuality, int maxQuality, int found) {
+                first.onSearch(van, minQuality, maxQuality, found);
+                second.onSearch(van, minQuality, maxQuality, found);
+            }
+        };
+    }
+}
+
+/**
+ * Синхронний консольний журнал (поведінка, яку раніше мав сам фургон).
+ */
+class ConsoleVanLogger implements VanEventListener {
+    @Override
+    public void onLoad(Van van, Coffee coffee) {
+        System.out.println("Успішно завантажено: " + coffee.getName());
+    }
+}
+
+/**
+ * Асинхронний журнал: події кладуться в обмежений кільцевий буфер (ArrayBlockingQueue),
+ * а окремий фоновий потік форматує і виводить їх. Потік, що завантажує фургон,
+ * ніколи не чекає на вивід: якщо буфер заповнений, подія відкидається і рахується.
+ */
+class AsyncVanLogger implements VanEventListener, AutoCloseable {
+
+    private static final long POLL_TIMEOUT_MS = 50;
+
+    // Подія в буфері: форматування відкладене до фонового потоку
+    private static final class Event {
+        final char kind; // 'L' — завантаження, 'R' — відмова, 'S' — сортування, 'Q' — пошук
+        final Coffee coffee;
+        final LoadResult reason;
+        final int a;
+        final int b;
+        final int c;
+
+        Event(char kind, Coffee coffee, LoadResult reason, int a, int b, int c) {
+            this.kind = kind;
+            this.coffee = coffee;
+            this.reason = reason;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+        }
+    }
+
+    private final BlockingQueue<Event> buffer;
+    private final PrintStream out;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity Розмір кільцевого буфера подій.
+     * @param out      Куди виводити журнал.
+     */
+    public AsyncVanLogger(int capacity, PrintStream out) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.out = Objects.requireNonNull(out);
+        this.writer = new Thread(this::drain, "van-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onLoad(Van van, Coffee coffee) {
+        publish(new Event('L', coffee, null, 0, 0, 0));
+    }
+
+    @Override
+    public void onReject(Van van, Coffee coffee, LoadResult reason) {
+        publish(new Event('R', coffee, reason, 0, 0, 0));
+    }
+
+    @Override
+    public void onSort(Van van, int cargoSize) {
+        publish(new Event('S', null, null, cargoSize, 0, 0));
+    }
+
+    @Override
+    public void onSearch(Van van, int minQuality, int maxQuality, int found) {
+        publish(new Event('Q', null, null, minQuality, maxQuality, found));
+    }
+
+    /**
+     * @return Скільки подій було відкинуто через переповнення буфера.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Зупиняє фоновий потік і дописує події, що залишились у буфері.
+     * Якщо потік, що закриває журнал, перервано, прапорець переривання відновлюється.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Події, що потрапили в буфер, поки фоновий потік завершувався
+        Event e;
+        while ((e = buffer.poll()) != null) {
+            write(e);
+        }
+        out.flush();
+    }
+
+    /**
+     * Кладе подію в буфер. Кожна подія — один невеликий об'єкт Event (форматування рядка
+     * відкладене до фонового потоку); повністю без виділень це можна зробити лише
+     * пулом попередньо створених комірок, що для журналу вважається зайвим.
+     */
+    private void publish(Event event) {
+        if (!running || !buffer.offer(event)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        // close() міг почати завершення після перевірки running: тоді або close() ще
+        // забере подію з буфера, або її забираємо ми й рахуємо як відкинуту — але не губимо
+        if (!running && buffer.remove(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Event e = buffer.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (e == null) {
+                    if (!running) return;
+                    continue;
+                }
+                write(e);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Event e) {
+        switch (e.kind) {
+            case 'L':
+                out.println("Успішно завантажено: " + e.coffee.getName());
+                break;
+            case 'R':
+                out.println("Відмова (" + e.reason + "): " + e.coffee.getName());
+                break;
+            case 'S':
+                out.println("Вантаж відсортовано: " + e.a + " товарів");
+                break;
+            default:
+                out.println("Пошук за якістю [" + e.a + ", " + e.b + "]: знайдено " + e.c);
+        }
+    }
+}
+
+/**
+ * Лічильники для моніторингу: кількість прийнятих/відхилених товарів,
+ * сумарний прийнятий об'єм та вартість. Безпечні для використання з кількох потоків.
+ */
+class VanMetrics implements VanEventListener {
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejectedByVolume = new LongAdder();
+    private final LongAdder rejectedByBudget = new LongAdder();
+    private final DoubleAdder acceptedVolume = new DoubleAdder();
+    private final DoubleAdder acceptedCost = new DoubleAdder();
+    private final LongAdder sorts = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+
+    @Override
+    public void onLoad(Van van, Coffee coffee) {
+        accepted.increment();
+        acceptedVolume.add(coffee.getVolume());
+        acceptedCost.add(coffee.getPrice());
+    }
+
+    @Override
+    public void onReject(Van van, Coffee coffee, LoadResult reason) {
+        if (reason == LoadResult.REJECTED_VOLUME) {
+            rejectedByVolume.increment();
+        } else {
+            rejectedByBudget.increment();
+        }
+    }
+
+    @Override
+    public void onSort(Van van, int cargoSize) {
+        sorts.increment();
+    }
+
+    @Override
+    public void onSearch(Van van, int minQuality, int maxQuality, int found) {
+        searches.increment();
+    }
+
+    public long getAcceptedCount() { return accepted.sum(); }
+    public long getRejectedByVolumeCount() { return rejectedByVolume.sum(); }
+    public long getRejectedByBudgetCount() { return rejectedByBudget.sum(); }
+    public double getAcceptedVolume() { return acceptedVolume.sum(); }
+    public double getAcceptedCost() { return acceptedCost.sum(); }
+    public long getSortCount() { return sorts.sum(); }
+    public long getSearchCount() { return searches.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("МЕТРИКИ: прийнято %d (об'єм %.2f, вартість %.2f) | відмов: об'єм %d, бюджет %d | сортувань %d | пошуків %d",
+                getAcceptedCount(), getAcceptedVolume(), getAcceptedCost(),
+                getRejectedByVolumeCount(), getRejectedByBudgetCount(), getSortCount(), getSearchCount());
+    }
+}
+
+// ==========================================
+// 4. КЛАС-КОНТЕЙНЕР
+// ==========================================
+
+/**
+ * Результат спроби завантаження товару (без створення виключень).
+ */
+enum LoadResult {
+    ACCEPTED,        // Товар завантажено
+    REJECTED_VOLUME, // Не вистачає місця у фургоні
+    REJECTED_BUDGET; // Не вистачає бюджету
+
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+}
+
+/**
+ * Підсумок пакетного завантаження: результат для кожного товару в порядку передачі.
+ */
+class BatchLoadResult {
+    private final Coffee[] coffees;
+    private final LoadResult[] results;
+    private final int acceptedCount;
+
+    BatchLoadResult(Coffee[] coffees, LoadResult[] results, int acceptedCount) {
+        this.coffees = coffees;
+        this.results = results;
+        this.acceptedCount = acceptedCount;
+    }
+
+    public int size() { return results.length; }
+    public int getAcceptedCount() { return acceptedCount; }
+    public int getRejectedCount() { return results.length - acceptedCount; }
+
+    /**
+     * @param index Позиція товару у вхідному списку.
+     * @return Результат завантаження цього товару.
+     */
+    public LoadResult getResult(int index) {
+        return results[index];
+    }
+
+    public List<Coffee> getAccepted() {
+        return select(true);
+    }
+
+    public List<Coffee> getRejected() {
+        return select(false);
+    }
+
+    private List<Coffee> select(boolean accepted) {
+        List<Coffee> list = new ArrayList<>(accepted ? acceptedCount : getRejectedCount());
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].isAccepted() == accepted) {
+                list.add(coffees[i]);
+            }
+        }
+        return list;
+    }
+}
+
+/**
+ * Індекс вантажу за якістю для швидких діапазонних запитів.
+ * Для основного діапазону якості (1–100) товари лежать у "кошиках" за значенням якості,
+ * а бітова маска непорожніх кошиків дозволяє одразу пропускати порожні.
+ * Рідкісні значення поза діапазоном зберігаються у впорядкованому TreeMap.
+ * Запит діапазону коштує O(log n + k) і не вимагає перегляду всього вантажу.
+ * Порядок видачі: за зростанням якості, а в межах однієї якості — за порядком завантаження.
+ */
+class QualityIndex {
+    static final int MIN_QUALITY = 1;
+    static final int MAX_QUALITY = 100;
+    private static final int DOMAIN = MAX_QUALITY - MIN_QUALITY + 1;
+
+    private final Coffee[][] buckets = new Coffee[DOMAIN][];
+    private final int[] counts = new int[DOMAIN];
+    private final long[] occupied = new long[(DOMAIN + 63) >>> 6]; // Біт i — кошик i непорожній
+    private final TreeMap<Integer, List<Coffee>> outliers = new TreeMap<>();
+    private int size = 0;
+
+    /**
+     * Додає товар до індексу (викликається при кожному завантаженні).
+     */
+    void add(Coffee coffee) {
+        int q = coffee.getQuality();
+        if (q < MIN_QUALITY || q > MAX_QUALITY) {
+            outliers.computeIfAbsent(q, k -> new ArrayList<>()).add(coffee);
+        } else {
+            int i = q - MIN_QUALITY;
+            Coffee[] bucket = buckets[i];
+            if (bucket == null) {
+                bucket = buckets[i] = new Coffee[4];
+            } else if (counts[i] == bucket.length) {
+                bucket = buckets[i] = Arrays.copyOf(bucket, bucket.length << 1);
+            }
+            bucket[counts[i]++] = coffee;
+            occupied[i >>> 6] |= 1L << i;
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Передає відвідувачу кожен товар з якістю в межах [minQuality, maxQuality],
+     * не створюючи проміжних списків.
+     *
+     * @return Кількість відвіданих товарів.
+     */
+    public int forEachInRange(int minQuality, int maxQuality, Consumer<? super Coffee> visitor) {
+        if (minQuality > maxQuality) {
+            return 0;
+        }
+        int visited = 0;
+        if (minQuality < MIN_QUALITY) {
+            visited += visitOutliers(minQuality, Math.min(maxQuality, MIN_QUALITY - 1), visitor);
+        }
+        int from = Math.max(minQuality, MIN_QUALITY) - MIN_QUALITY;
+        int to = Math.min(maxQuality, MAX_QUALITY) - MIN_QUALITY;
+        for (int i = nextOccupied(from); i >= 0 && i <= to; i = nextOccupied(i + 1)) {
+            Coffee[] bucket = buckets[i];
+            for (int j = 0, n = counts[i]; j < n; j++) {
+                visitor.accept(bucket[j]);
+            }
+            visited += counts[i];
+        }
+        if (maxQuality > MAX_QUALITY) {
+            visited += visitOutliers(Math.max(minQuality, MAX_QUALITY + 1), maxQuality, visitor);
+        }
+        return visited;
+    }
+
+    /**
+     * Рахує товари в діапазоні якості без їх перебору (лише за розмірами кошиків).
+     */
+    public int countInRange(int minQuality, int maxQuality) {
+        if (minQuality > maxQuality) {
+            return 0;
+        }
+        int count = 0;
+        int from = Math.max(minQuality, MIN_QUALITY) - MIN_QUALITY;
+        int to = Math.min(maxQuality, MAX_QUALITY) - MIN_QUALITY;
+        for (int i = nextOccupied(from); i >= 0 && i <= to; i = nextOccupied(i + 1)) {
+            count += counts[i];
+        }
+        if (!outliers.isEmpty()) {
+            for (List<Coffee> list : outliers.subMap(minQuality, true, maxQuality, true).values()) {
+                count += list.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Повертає список товарів у діапазоні якості (розмір списку відомий наперед).
+     */
+    public List<Coffee> findInRange(int minQuality, int maxQuality) {
+        List<Coffee> result = new ArrayList<>(countInRange(minQuality, maxQuality));
+        forEachInRange(minQuality, maxQuality, result::add);
+        return result;
+    }
+
+    private int visitOutliers(int from, int to, Consumer<? super Coffee> visitor) {
+        if (from > to || outliers.isEmpty()) {
+            return 0;
+        }
+        int visited = 0;
+        for (List<Coffee> list : outliers.subMap(from, true, to, true).values()) {
+            for (Coffee c : list) {
+                visitor.accept(c);
+            }
+            visited += list.size();
+        }
+        return visited;
+    }
+
+    /**
+     * Номер першого непорожнього кошика, не меншого за from (або -1).
+     */
+    private int nextOccupied(int from) {
+        if (from >= DOMAIN) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return i < DOMAIN ? i : -1;
+            }
+            if (++word == occupied.length) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+    }
+}
+
+/**
+ * Колонкове (struct-of-arrays) сховище вантажу для аналітики.
+ * Кожна характеристика товару лежить у власному примітивному масиві, тому агрегати
+ * та фільтри — це прості цикли по суміжній пам'яті без переходів за посиланнями.
+ * Назва та тип товару кодуються словником: у колонці зберігається лише номер рядка словника.
+ * Рядки йдуть у порядку завантаження (сортування вантажу їх не переставляє).
+ */
+class CargoColumns {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] price = new double[INITIAL_CAPACITY];
+    private double[] weight = new double[INITIAL_CAPACITY];
+    private double[] volume = new double[INITIAL_CAPACITY];
+    private double[] ratio = new double[INITIAL_CAPACITY];
+    private int[] quality = new int[INITIAL_CAPACITY];
+    private int[] nameCode = new int[INITIAL_CAPACITY];
+    private int[] typeCode = new int[INITIAL_CAPACITY];
+    private final Dictionary names;
+    private final Dictionary types;
+    private int size = 0;
+
+    CargoColumns() {
+        this.names = new Dictionary();
+        this.types = new Dictionary();
+    }
+
+    /**
+     * Незалежна копія колонок (масиви обрізаються до розміру, словники копіюються).
+     */
+    private CargoColumns(CargoColumns source) {
+        this.size = source.size;
+        this.price = Arrays.copyOf(source.price, Math.max(size, 1));
+        this.weight = Arrays.copyOf(source.weight, Math.max(size, 1));
+        this.volume = Arrays.copyOf(source.volume, Math.max(size, 1));
+        this.ratio = Arrays.copyOf(source.ratio, Math.max(size, 1));
+        this.quality = Arrays.copyOf(source.quality, Math.max(size, 1));
+        this.nameCode = Arrays.copyOf(source.nameCode, Math.max(size, 1));
+        this.typeCode = Arrays.copyOf(source.typeCode, Math.max(size, 1));
+        this.names = new Dictionary(source.names);
+        this.types = new Dictionary(source.types);
+    }
+
+    /**
+     * Повертає знімок поточного стану, який не змінюватиметься наступними завантаженнями.
+     */
+    CargoColumns snapshot() {
+        return new CargoColumns(this);
+    }
+
+    /**
+     * Додає товар як новий рядок (викликається фургоном при кожному завантаженні).
+     */
+    void append(Coffee coffee) {
+        if (size == price.length) {
+            int capacity = size << 1;
+            price = Arrays.copyOf(price, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+            ratio = Arrays.copyOf(ratio, capacity);
+            quality = Arrays.copyOf(quality, capacity);
+            nameCode = Arrays.copyOf(nameCode, capacity);
+            typeCode = Arrays.copyOf(typeCode, capacity);
+        }
+        price[size] = coffee.getPrice();
+        weight[size] = coffee.getWeight();
+        volume[size] = coffee.getVolume();
+        ratio[size] = coffee.getPriceToWeightRatio();
+        quality[size] = coffee.getQuality();
+        nameCode[size] = names.encode(coffee.getName());
+        typeCode[size] = types.encode(coffee.getClass().getSimpleName());
+        size++;
+    }
+
+    public int size() { return size; }
+    public double getPrice(int row) { return price[checkRow(row)]; }
+    public double getWeight(int row) { return weight[checkRow(row)]; }
+    public double getVolume(int row) { return volume[checkRow(row)]; }
+    public int getQuality(int row) { return quality[checkRow(row)]; }
+    public String getName(int row) { return names.decode(nameCode[checkRow(row)]); }
+    public String getType(int row) { return types.decode(typeCode[checkRow(row)]); }
+
+    // ------------------------------------------
+    // Агрегати
+    // ------------------------------------------
+
+    public double totalPrice() { return sum(price); }
+    public double totalWeight() { return sum(weight); }
+    public double totalVolume() { return sum(volume); }
+
+    /**
+     * Середня якість вантажу (0, якщо вантаж порожній).
+     */
+    public double averageQuality() {
+        if (size == 0) {
+            return 0;
+        }
+        long total = 0;
+        int[] q = quality;
+        for (int i = 0; i < size; i++) {
+            total += q[i];
+        }
+        return (double) total / size;
+    }
+
+    /**
+     * Гістограма співвідношення ціна/вага з рівними інтервалами на [min, max).
+     * Значення поза межами потрапляють у крайні інтервали.
+     *
+     * @param buckets Кількість інтервалів.
+     * @return Кількість товарів у кожному інтервалі.
+     */
+    public long[] ratioHistogram(double min, double max, int buckets) {
+        if (buckets <= 0 || !(max > min)) {
+            throw new IllegalArgumentException("Потрібно buckets > 0 та max > min.");
+        }
+        long[] counts = new long[buckets];
+        double scale = buckets / (max - min);
+        int last = buckets - 1;
+        double[] r = ratio;
+        for (int i = 0; i < size; i++) {
+            int b = (int) ((r[i] - min) * scale);
+            counts[b < 0 ? 0 : (b > last ? last : b)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Кількість товарів кожного типу (ключ — назва класу товару).
+     */
+    public Map<String, Integer> countByType() {
+        int[] counts = new int[types.size()];
+        int[] t = typeCode;
+        for (int i = 0; i < size; i++) {
+            counts[t[i]]++;
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            result.put(types.decode(code), counts[code]);
+        }
+        return result;
+    }
+
+    // ------------------------------------------
+    // Фільтри (повертають номери рядків)
+    // ------------------------------------------
+
+    /**
+     * Номери рядків із якістю в межах [minQuality, maxQuality].
+     * Цикл без розгалужень: номер записується завжди, а лічильник зсувається лише при збігу.
+     */
+    public int[] filterByQuality(int minQuality, int maxQuality) {
+        int[] rows = new int[size];
+        int count = 0;
+        int[] q = quality;
+        for (int i = 0; i < size; i++) {
+            rows[count] = i;
+            count += (q[i] >= minQuality & q[i] <= maxQuality) ? 1 : 0;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Номери рядків із ціною в межах [minPrice, maxPrice].
+     */
+    public int[] filterByPrice(double minPrice, double maxPrice) {
+        int[] rows = new int[size];
+        int count = 0;
+        double[] p = price;
+        for (int i = 0; i < size; i++) {
+            rows[count] = i;
+            count += (p[i] >= minPrice & p[i] <= maxPrice) ? 1 : 0;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Сума ціни лише по вибраних рядках (наприклад, результату фільтра).
+     */
+    public double totalPrice(int[] rows) {
+        double total = 0;
+        for (int row : rows) {
+            total += price[row];
+        }
+        return total;
+    }
+
+    private double sum(double[] column) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += column[i];
+        }
+        return total;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Рядок " + row + ", розмір " + size);
+        }
+        return row;
+    }
+
+    /**
+     * Словник рядкових значень: кожне різне значення отримує послідовний код.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes;
+        private final List<String> values;
+
+        Dictionary() {
+            this.codes = new HashMap<>();
+            this.values = new ArrayList<>();
+        }
+
+        Dictionary(Dictionary source) {
+            this.codes = new HashMap<>(source.codes);
+            this.values = new ArrayList<>(source.values);
+        }
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
+
 /**
  * Клас "Фургон", який накопичує товари, слідкує за бюджетом та місткістю,
  * а також виконує операції сортування та пошуку.
  */
-class Van {
-    private double maxVolume;       // Максимальна місткість фургона
-    private double currentVolume;   // Поточна заповненість
-    private double maxBudget;       // Максимальний бюджет на закупівлю
-    private double currentCost;     // Потрачені кошти
-    private List<Coffee> cargo;     // Список завантажених товарів
+class Van {
+    private double maxVolume;       // Максимальна місткість фургона
+    private double currentVolume;   // Поточна заповненість
+    private double maxBudget;       // Максимальний бюджет на закупівлю
+    private double currentCost;     // Потрачені кошти
+    private List<Coffee> cargo;     // Список завантажених товарів
+    private int sortedPrefix;       // Скільки перших товарів уже впорядковано за ціною/вагою
+    private final QualityIndex qualityIndex = new QualityIndex(); // Індекс вантажу за якістю
+    private final CargoColumns columns = new CargoColumns();      // Колонкова копія вантажу для аналітики
+    private VanEventListener listener = VanEventListener.NO_OP; // Слухач подій (за замовчуванням — мовчазний)
+
+    /**
+     * Створює порожній фургон із заданими обмеженнями.
+     *
+     * @param maxVolume Максимальний об'єм вантажу.
+     * @param maxBudget Максимальна сума грошей.
+     */
+    public Van(double maxVolume, double maxBudget) {
+        this.maxVolume = maxVolume;
+        this.maxBudget = maxBudget;
+        this.currentVolume = 0;
+        this.currentCost = 0;
+        this.cargo = new ArrayList<>();
+    }
+
+    /**
+     * Намагається завантажити товар у фургон.
+     * Перевіряє, чи не перевищено обсяг та бюджет.
+     *
+     * @param coffee Об'єкт товару.
+     * @throws VanCapacityExceededException Якщо товар не влазить фізично.
+     * @throws BudgetExceededException      Якщо на товар не вистачає грошей.
+     */
+    public void loadCoffee(Coffee coffee) throws VanCapacityExceededException, BudgetExceededException {
+        LoadResult result = load(coffee);
+        if (result == LoadResult.REJECTED_VOLUME) {
+            throw new VanCapacityExceededException("ПОМИЛКА: Фургон переповнений! Не можна додати: " + coffee.getName());
+        }
+        if (result == LoadResult.REJECTED_BUDGET) {
+            throw new BudgetExceededException("ПОМИЛКА: Бюджет вичерпано! Не можна купити: " + coffee.getName());
+        }
+    }
+
+    /**
+     * Намагається завантажити товар, не кидаючи виключень.
+     * Призначено для масових завантажень, де відмова — звичайна ситуація.
+     *
+     * @param coffee Об'єкт товару.
+     * @return ACCEPTED або причина відмови.
+     */
+    public LoadResult tryLoad(Coffee coffee) {
+        return load(coffee);
+    }
+
+    /**
+     * Завантажує список товарів по черзі (як tryLoad) і повертає результат для кожного з них.
+     *
+     * @param coffees Товари для завантаження.
+     * @return Які товари прийнято, а які відхилено і чому.
+     */
+    public BatchLoadResult loadAll(List<Coffee> coffees) {
+        Coffee[] items = coffees.toArray(new Coffee[0]);
+        LoadResult[] results = new LoadResult[items.length];
+        int accepted = 0;
+        for (int i = 0; i < items.length; i++) {
+            results[i] = tryLoad(items[i]);
+            if (results[i] == LoadResult.ACCEPTED) {
+                accepted++;
+            }
+        }
+        return new BatchLoadResult(items, results, accepted);
+    }
+
+    /**
+     * Спільна логіка loadCoffee / tryLoad: перевірка, завантаження та сповіщення слухача.
+     * Перевизначається у ConcurrentVan.
+     */
+    LoadResult load(Coffee coffee) {
+        LoadResult result = check(coffee);
+        if (result == LoadResult.ACCEPTED) {
+            store(coffee);
+            listener.onLoad(this, coffee);
+        } else {
+            listener.onReject(this, coffee, result);
+        }
+        return result;
+    }
+
+    /**
+     * Перевіряє, чи вміщується товар за об'ємом та бюджетом (спершу об'єм, як і раніше).
+     */
+    private LoadResult check(Coffee coffee) {
+        if (currentVolume + coffee.getVolume() > maxVolume) {
+            return LoadResult.REJECTED_VOLUME;
+        }
+        if (currentCost + coffee.getPrice() > maxBudget) {
+            return LoadResult.REJECTED_BUDGET;
+        }
+        return LoadResult.ACCEPTED;
+    }
+
+    /**
+     * Додає вже перевірений товар до вантажу та всіх індексів (без сповіщення слухача).
+     */
+    void store(Coffee coffee) {
+        cargo.add(coffee);
+        qualityIndex.add(coffee);
+        columns.append(coffee);
+        currentVolume += coffee.getVolume();
+        currentCost += coffee.getPrice();
+    }
+
+    /**
+     * Встановлює слухача подій фургона (журнал, метрики тощо).
+     *
+     * @param listener Слухач; null вимикає сповіщення.
+     */
+    public void setEventListener(VanEventListener listener) {
+        this.listener = listener == null ? VanEventListener.NO_OP : listener;
+    }
+
+    public VanEventListener getEventListener() {
+        return listener;
+    }
+
+    public double getMaxVolume() { return maxVolume; }
+    public double getCurrentVolume() { return currentVolume; }
+    public double getMaxBudget() { return maxBudget; }
+    public double getCurrentCost() { return currentCost; }
+    public int getCargoCount() { return cargo.size(); }
+
+    /**
+     * Повертає колонкове представлення вантажу (у порядку завантаження) для агрегатів і фільтрів.
+     */
+    public CargoColumns getColumns() { return columns; }
+
+    /**
+     * Повертає вільний об'єм фургона.
+     */
+    public double getRemainingVolume() {
+        return maxVolume - currentVolume;
+    }
+
+    /**
+     * Повертає залишок бюджету.
+     */
+    public double getRemainingBudget() {
+        return maxBudget - currentCost;
+    }
+
+    /**
+     * Сортує вантаж у фургоні на основі співвідношення ціни та ваги (Price / Weight).
+     * Сортування інкрементальне: фургон пам'ятає вже впорядкований префікс вантажу,
+     * тому сортуються лише k товарів, завантажених після попереднього виклику,
+     * і вливаються у префікс бінарним пошуком — O(k log n) порівнянь замість O(n log n).
+     * Порядок збігається зі стабільним сортуванням усього вантажу.
+     */
+    public void sortByPriceToWeightRatio() {
+        int size = cargo.size();
+        if (sortedPrefix < size) {
+            // Сортування за зростанням співвідношення (лише нових товарів)
+            List<Coffee> tail = cargo.subList(sortedPrefix, size);
+            tail.sort(Comparator.comparingDouble(Coffee::getPriceToWeightRatio));
+            if (sortedPrefix > 0) {
+                mergeSortedTail(sortedPrefix);
+            }
+            sortedPrefix = size;
+        }
+        listener.onSort(this, size);
+    }
+
+    /**
+     * Вливає впорядкований хвіст cargo[prefix..] у впорядкований префікс cargo[0..prefix).
+     * Хвіст (k товарів) копіюється в буфер, а злиття йде з кінця на місці: переставляються
+     * лише товари префікса, що стають після найменшого нового, без копії всього вантажу.
+     * Позиція кожного товару хвоста шукається бінарним пошуком (верхня межа —
+     * за рівних ключів старі товари лишаються попереду, як при стабільному сортуванні).
+     */
+    private void mergeSortedTail(int prefix) {
+        int size = cargo.size();
+        Coffee[] tail = cargo.subList(prefix, size).toArray(new Coffee[0]);
+        int src = prefix; // Межа ще не переміщеної частини префікса: cargo[0..src)
+        int dst = size;
+        for (int j = tail.length - 1; j >= 0; j--) {
+            Coffee next = tail[j];
+            double key = next.getPriceToWeightRatio();
+            int lo = 0;
+            int hi = src;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Double.compare(cargo.get(mid).getPriceToWeightRatio(), key) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            while (src > lo) {
+                cargo.set(--dst, cargo.get(--src));
+            }
+            cargo.set(--dst, next);
+        }
+    }
+
+    /**
+     * Знаходить товари, які відповідають заданому діапазону якості.
+     * Товари повертаються в порядку вантажу (наприклад, після sortByPriceToWeightRatio —
+     * за ціною/вагою). Індекс якості дає точний розмір результату, а якщо збігів немає,
+     * вантаж не переглядається зовсім.
+     *
+     * @param minQuality Мінімальна якість.
+     * @param maxQuality Максимальна якість.
+     * @return Список знайдених товарів.
+     */
+    public List<Coffee> findByQualityRange(int minQuality, int maxQuality) {
+        int expected = qualityIndex.countInRange(minQuality, maxQuality);
+        List<Coffee> result = new ArrayList<>(expected);
+        for (int i = 0, n = cargo.size(); i < n && result.size() < expected; i++) {
+            Coffee c = cargo.get(i);
+            if (c.getQuality() >= minQuality && c.getQuality() <= maxQuality) {
+                result.add(c);
+            }
+        }
+        listener.onSearch(this, minQuality, maxQuality, result.size());
+        return result;
+    }
+
+    /**
+     * Знаходить товари з діапазону якості лише за індексом, не переглядаючи вантаж: O(log n + k).
+     * На відміну від findByQualityRange, результат впорядкований за зростанням якості,
+     * а товари однакової якості — за порядком завантаження.
+     *
+     * @param minQuality Мінімальна якість.
+     * @param maxQuality Максимальна якість.
+     * @return Список знайдених товарів.
+     */
+    public List<Coffee> findByQualityRangeAscending(int minQuality, int maxQuality) {
+        List<Coffee> result = qualityIndex.findInRange(minQuality, maxQuality);
+        listener.onSearch(this, minQuality, maxQuality, result.size());
+        return result;
+    }
+
+    /**
+     * Передає кожен товар із заданим діапазоном якості відвідувачу, не створюючи списку.
+     * Обхід іде за індексом, тому порядок той самий, що й у findByQualityRangeAscending:
+     * за зростанням якості, а за рівної якості — за порядком завантаження.
+     *
+     * @param minQuality Мінімальна якість.
+     * @param maxQuality Максимальна якість.
+     * @param visitor    Дія над кожним знайденим товаром.
+     * @return Кількість знайдених товарів.
+     */
+    public int forEachByQualityRange(int minQuality, int maxQuality, Consumer<? super Coffee> visitor) {
+        int found = qualityIndex.forEachInRange(minQuality, maxQuality, visitor);
+        listener.onSearch(this, minQuality, maxQuality, found);
+        return found;
+    }
+
+    /**
+     * Рахує товари із заданим діапазоном якості.
+     */
+    public int countByQualityRange(int minQuality, int maxQuality) {
+        return qualityIndex.countInRange(minQuality, maxQuality);
+    }
+
+    /**
+     * Повертає k "найменших" за компаратором товарів (першим — найкращий), не змінюючи порядок вантажу.
+     * Використовує обмежену купу з k елементів: O(n log k) замість повного сортування.
+     * Серед рівних за компаратором товарів перевага — тим, що стоять у вантажі раніше.
+     *
+     * @param k          Кількість товарів.
+     * @param comparator Порядок, у якому "кращі" товари йдуть першими.
+     */
+    public List<Coffee> topK(int k, Comparator<? super Coffee> comparator) {
+        TopKHeap heap = new TopKHeap(cargo, k, comparator);
+        for (int i = 0, n = cargo.size(); i < n; i++) {
+            heap.offer(i);
+        }
+        return heap.result();
+    }
+
+    /**
+     * Паралельний варіант topK для дуже великого вантажу: кожна частина вантажу
+     * заповнює власну обмежену купу, а купи потім зливаються. Результат той самий, що й у topK.
+     */
+    public List<Coffee> topKParallel(int k, Comparator<? super Coffee> comparator) {
+        return IntStream.range(0, cargo.size()).parallel()
+                .collect(() -> new TopKHeap(cargo, k, comparator), TopKHeap::offer, TopKHeap::merge)
+                .result();
+    }
+
+    /**
+     * k товарів з найвищою якістю.
+     */
+    public List<Coffee> topByQuality(int k) {
+        return topK(k, Comparator.comparingInt(Coffee::getQuality).reversed());
+    }
+
+    /**
+     * k товарів з найнижчою ціною за кілограм.
+     */
+    public List<Coffee> cheapestPerKg(int k) {
+        return topK(k, Comparator.comparingDouble(Coffee::getPriceToWeightRatio));
+    }
+
+    /**
+     * Обмежена купа номерів товарів: на вершині — найгірший з k відібраних.
+     * Рівні товари впорядковуються за номером, тому результат детермінований.
+     * Купа зберігається у двох паралельних масивах (номер і сам товар), тож вставка
+     * не пакує номери в Integer і не звертається до списку при кожному порівнянні.
+     */
+    private static final class TopKHeap {
+        private final List<Coffee> items;
+        private final int k;
+        private final Comparator<? super Coffee> comparator;
+        private final int[] indices;
+        private final Coffee[] values;
+        private int size = 0;
+
+        TopKHeap(List<Coffee> items, int k, Comparator<? super Coffee> comparator) {
+            this.items = items;
+            this.k = Math.max(k, 0);
+            this.comparator = comparator;
+            int capacity = Math.min(this.k, items.size());
+            this.indices = new int[capacity];
+            this.values = new Coffee[capacity];
+        }
+
+        void offer(int index) {
+            if (k > 0) {
+                offer(index, items.get(index));
+            }
+        }
+
+        private void offer(int index, Coffee coffee) {
+            if (size < indices.length) {
+                indices[size] = index;
+                values[size] = coffee;
+                siftUp(size++);
+            } else if (size > 0 && compare(coffee, index, values[0], indices[0]) < 0) {
+                indices[0] = index;
+                values[0] = coffee;
+                siftDown(0);
+            }
+        }
+
+        void merge(TopKHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.indices[i], other.values[i]);
+            }
+        }
+
+        /**
+         * Повертає відібрані товари від найкращого до найгіршого. Купа при цьому спорожнюється.
+         */
+        List<Coffee> result() {
+            Coffee[] sorted = new Coffee[size];
+            while (size > 0) {
+                sorted[size - 1] = values[0];
+                size--;
+                indices[0] = indices[size];
+                values[0] = values[size];
+                values[size] = null;
+                siftDown(0);
+            }
+            return new ArrayList<>(Arrays.asList(sorted));
+        }
+
+        private int compare(Coffee a, int indexA, Coffee b, int indexB) {
+            int c = comparator.compare(a, b);
+            return c != 0 ? c : Integer.compare(indexA, indexB);
+        }
+
+        /** Чи гірший елемент у позиції i за елемент у позиції j. */
+        private boolean worse(int i, int j) {
+            return compare(values[i], indices[i], values[j], indices[j]) > 0;
+        }
+
+        private void siftUp(int pos) {
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!worse(pos, parent)) break;
+                swap(pos, parent);
+                pos = parent;
+            }
+        }
+
+        private void siftDown(int pos) {
+            while (true) {
+                int child = 2 * pos + 1;
+                if (child >= size) break;
+                if (child + 1 < size && worse(child + 1, child)) child++;
+                if (!worse(child, pos)) break;
+                swap(pos, child);
+                pos = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int index = indices[i];
+            indices[i] = indices[j];
+            indices[j] = index;
+            Coffee value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Виводить у консоль поточний стан фургона та список товарів.
+     */
+    public void printCargoInfo() {
+        System.out.println("\n------------------------------------------------------------------------------------------");
+        System.out.printf("СТАН ФУРГОНА: Об'єм %.2f / %.2f | Бюджет %.2f / %.2f%n",
+                currentVolume, maxVolume, currentCost, maxBudget);
+        System.out.println("------------------------------------------------------------------------------------------");
+        if (cargo.isEmpty()) {
+            System.out.println("Фургон порожній.");
+        } else {
+            for (Coffee c : cargo) {
+                System.out.println(c);
+            }
+        }
+        System.out.println("------------------------------------------------------------------------------------------\n");
+    }
+}
+
+/**
+ * Потокобезпечний фургон для одночасного завантаження з кількох потоків.
+ * Об'єм і бюджет резервуються без блокувань: зайняті значення зберігаються як числа
+ * з фіксованою комою (AtomicLong, 20 двійкових знаків після коми) і збільшуються через CAS
+ * лише якщо результат не перевищує максимуму — тому maxVolume / maxBudget ніколи не перевищуються.
+ * Округлення завжди "проти" завантажувача: розмір товару — вгору, максимум — вниз.
+ * Якщо об'єм зарезервовано, а бюджету не вистачило, резерв об'єму повертається.
+ *
+ * Прийняті товари складаються у неблокуючу чергу і переносяться до основного вантажу
+ * (списку, індексів, колонок) під блокуванням лише перед операціями читання.
+ * Слухач подій викликається в потоках завантажувачів, тож має бути потокобезпечним
+ * (як VanMetrics чи AsyncVanLogger), а встановлювати його слід до початку завантаження.
+ */
+class ConcurrentVan extends Van {
+    private static final double SCALE = 1 << 20;      // Множник фіксованої коми (точне множення в double)
+    private static final long MAX_UNITS = Long.MAX_VALUE >> 2; // Запас від переповнення при додаванні
+
+    private final long maxVolumeUnits;
+    private final long maxBudgetUnits;
+    private final AtomicLong usedVolume = new AtomicLong();
+    private final AtomicLong usedBudget = new AtomicLong();
+    private final ConcurrentLinkedQueue<Coffee> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param maxVolume Максимальний об'єм вантажу.
+     * @param maxBudget Максимальна сума грошей.
+     */
+    public ConcurrentVan(double maxVolume, double maxBudget) {
+        super(maxVolume, maxBudget);
+        this.maxVolumeUnits = toUnits(maxVolume, false);
+        this.maxBudgetUnits = toUnits(maxBudget, false);
+    }
+
+    @Override
+    LoadResult load(Coffee coffee) {
+        long volume = toUnits(coffee.getVolume(), true);
+        long price = toUnits(coffee.getPrice(), true);
+        LoadResult result;
+        if (!reserve(usedVolume, volume, maxVolumeUnits)) {
+            result = LoadResult.REJECTED_VOLUME;
+        } else if (!reserve(usedBudget, price, maxBudgetUnits)) {
+            usedVolume.getAndAdd(-volume); // Відкат резерву об'єму
+            result = LoadResult.REJECTED_BUDGET;
+        } else {
+            pending.add(coffee);
+            getEventListener().onLoad(this, coffee);
+            return LoadResult.ACCEPTED;
+        }
+        getEventListener().onReject(this, coffee, result);
+        return result;
+    }
+
+    /**
+     * CAS-цикл: додає amount до used, лише якщо сума не перевищує max.
+     */
+    private static boolean reserve(AtomicLong used, long amount, long max) {
+        while (true) {
+            long current = used.get();
+            long next = current + amount;
+            if (next > max) {
+                return false;
+            }
+            if (used.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static long toUnits(double value, boolean roundUp) {
+        double scaled = value * SCALE;
+        if (scaled >= MAX_UNITS) {
+            return MAX_UNITS;
+        }
+        return (long) (roundUp ? Math.ceil(scaled) : Math.floor(scaled));
+    }
+
+    /**
+     * Переносить накопичені товари до основного вантажу. Викликається під блокуванням.
+     */
+    private void drain() {
+        Coffee coffee;
+        while ((coffee = pending.poll()) != null) {
+            store(coffee);
+        }
+    }
+
+    private <T> T read(Supplier<T> operation) {
+        lock.lock();
+        try {
+            drain();
+            return operation.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Операції читання бачать усі товари, прийняті до їх виклику
+
+    @Override public double getCurrentVolume() { return read(super::getCurrentVolume); }
+    @Override public double getCurrentCost() { return read(super::getCurrentCost); }
+    @Override public int getCargoCount() { return read(super::getCargoCount); }
+    /**
+     * Повертає знімок колонок, зроблений під блокуванням: живий об'єкт змінюється при кожному
+     * перенесенні товарів з черги, тож видавати його назовні без блокування не можна.
+     */
+    @Override public CargoColumns getColumns() { return read(() -> super.getColumns().snapshot()); }
+    @Override public double getRemainingVolume() { return read(super::getRemainingVolume); }
+    @Override public double getRemainingBudget() { return read(super::getRemainingBudget); }
+
+    @Override
+    public void sortByPriceToWeightRatio() {
+        read(() -> {
+            super.sortByPriceToWeightRatio();
+            return null;
+        });
+    }
+
+    @Override
+    public List<Coffee> findByQualityRange(int minQuality, int maxQuality) {
+        return read(() -> super.findByQualityRange(minQuality, maxQuality));
+    }
+
+    @Override
+    public List<Coffee> findByQualityRangeAscending(int minQuality, int maxQuality) {
+        return read(() -> super.findByQualityRangeAscending(minQuality, maxQuality));
+    }
+
+    @Override
+    public int forEachByQualityRange(int minQuality, int maxQuality, Consumer<? super Coffee> visitor) {
+        return read(() -> super.forEachByQualityRange(minQuality, maxQuality, visitor));
+    }
+
+    @Override
+    public int countByQualityRange(int minQuality, int maxQuality) {
+        return read(() -> super.countByQualityRange(minQuality, maxQuality));
+    }
+
+    @Override
+    public List<Coffee> topK(int k, Comparator<? super Coffee> comparator) {
+        return read(() -> super.topK(k, comparator));
+    }
+
+    @Override
+    public List<Coffee> topKParallel(int k, Comparator<? super Coffee> comparator) {
+        return read(() -> super.topKParallel(k, comparator));
+    }
+
+    @Override
+    public void printCargoInfo() {
+        read(() -> {
+            super.printCargoInfo();
+            return null;
+        });
+    }
+}
+
+// ==========================================
+// 5. ПЛАНУВАННЯ ЗАВАНТАЖЕННЯ (KNAPSACK)
+// ==========================================
+
+/**
+ * Спосіб, яким було отримано план завантаження.
+ */
+enum PlanMethod {
+    DYNAMIC_PROGRAMMING, // Точний розв'язок на сітці дискретизації об'єму та бюджету
+    GREEDY_WITH_REPAIR   // Жадібний вибір + покращення обмінами в межах часу
+}
+
+/**
+ * Результат планування: обрані товари та їх сумарні показники.
+ */
+class LoadPlan {
+    private final List<Coffee> items;
+    private final double totalValue;
+    private final double totalVolume;
+    private final double totalCost;
+    private final PlanMethod method;
+
+    LoadPlan(List<Coffee> items, double totalValue, PlanMethod method) {
+        this.items = Collections.unmodifiableList(items);
+        this.totalValue = totalValue;
+        this.method = method;
+        double volume = 0;
+        double cost = 0;
+        for (Coffee c : items) {
+            volume += c.getVolume();
+            cost += c.getPrice();
+        }
+        this.totalVolume = volume;
+        this.totalCost = cost;
+    }
+
+    public List<Coffee> getItems() { return items; }
+    public double getTotalValue() { return totalValue; }
+    public double getTotalVolume() { return totalVolume; }
+    public double getTotalCost() { return totalCost; }
+    public PlanMethod getMethod() { return method; }
+
+    @Override
+    public String toString() {
+        return String.format("ПЛАН (%s): товарів %d | Цінність: %.1f | Об'єм: %.2f | Вартість: %.2f",
+                method, items.size(), totalValue, totalVolume, totalCost);
+    }
+}
+
+/**
+ * Планувальник оптимального завантаження фургона (задача про рюкзак з двома обмеженнями).
+ * Обирає з кандидатів набір товарів із максимальною сумарною цінністю (за замовчуванням — якістю),
+ * що вміщується в обмеження об'єму та бюджету.
+ * Для невеликої кількості кандидатів використовується динамічне програмування
+ * по двовимірній сітці (об'єм × бюджет), для великої — жадібний алгоритм з покращенням,
+ * обмежений у часі.
+ */
+class VanLoadPlanner {
+
+    static final int DP_MAX_ITEMS = 256;                 // До скількох кандидатів застосовуємо DP
+    private static final long DP_MAX_DECISION_BITS = 1L << 26; // Пам'ять під відновлення рішення (8 МБ)
+    private static final int DP_MAX_CELLS = 1 << 20;     // Максимальний розмір сітки об'єм × бюджет
+    private static final double RESOLUTION = 0.01;       // Природний крок даних (копійки, соті літра)
+    private static final double EPS = 1e-9;
+    private static final long DEFAULT_TIME_BUDGET_MS = 200;
+
+    private final ToDoubleFunction<Coffee> valueFunction;
+    private final long timeBudgetNanos;
+
+    /**
+     * Планувальник, що максимізує сумарну якість.
+     */
+    public VanLoadPlanner() {
+        this(Coffee::getQuality, DEFAULT_TIME_BUDGET_MS);
+    }
+
+    /**
+     * @param valueFunction   Цінність одного товару (наприклад, якість або ціна).
+     * @param timeBudgetMillis Обмеження часу на покращення евристики для великих входів.
+     */
+    public VanLoadPlanner(ToDoubleFunction<Coffee> valueFunction, long timeBudgetMillis) {
+        this.valueFunction = Objects.requireNonNull(valueFunction);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Планує завантаження у вільне місце та залишок бюджету конкретного фургона.
+     */
+    public LoadPlan planFor(Van van, List<Coffee> candidates) {
+        return plan(candidates, van.getRemainingVolume(), van.getRemainingBudget());
+    }
+
+    /**
+     * Обирає найцінніший набір товарів, що вміщується в обмеження.
+     *
+     * @param candidates Товари-кандидати.
+     * @param maxVolume  Доступний об'єм.
+     * @param maxBudget  Доступний бюджет.
+     * @return План завантаження.
+     */
+    public LoadPlan plan(List<Coffee> candidates, double maxVolume, double maxBudget) {
+        // Товари, що не влазять навіть поодинці або нічого не додають, одразу відкидаємо
+        List<Coffee> items = new ArrayList<>();
+        for (Coffee c : candidates) {
+            if (c.getVolume() <= maxVolume && c.getPrice() <= maxBudget && valueFunction.applyAsDouble(c) > 0) {
+                items.add(c);
+            }
+        }
+        if (items.isEmpty()) {
+            return new LoadPlan(new ArrayList<>(), 0, PlanMethod.DYNAMIC_PROGRAMMING);
+        }
+        if (items.size() <= DP_MAX_ITEMS) {
+            return planDynamic(items, maxVolume, maxBudget);
+        }
+        return planGreedy(items, maxVolume, maxBudget);
+    }
+
+    // --------------------------------------------------
+    // ДИНАМІЧНЕ ПРОГРАМУВАННЯ
+    // --------------------------------------------------
+
+    /**
+     * 0/1-рюкзак з двома обмеженнями на сітці V × B.
+     * Розміри товарів округлюються до кроку сітки з допуском EPS, тож сітка може вмістити набір,
+     * реальна сума якого у double трохи більша за обмеження (0.1 + 0.2 > 0.3). Тому відновлений
+     * набір перевіряється тими ж додаваннями зліва направо, що й у Van, і товар, що переповнює,
+     * відкидається. Якщо дані кратні 0.01 і сітка не огрублена, розв'язок точний з точністю до цього.
+     */
+    private LoadPlan planDynamic(List<Coffee> items, double maxVolume, double maxBudget) {
+        int n = items.size();
+        long cellLimit = Math.min(DP_MAX_CELLS, DP_MAX_DECISION_BITS / n);
+        int[] grid = chooseGrid(maxVolume, maxBudget, cellLimit);
+        int vCap = grid[0];
+        int bCap = grid[1];
+        double volumeUnit = vCap == 0 ? 1 : maxVolume / vCap;
+        double budgetUnit = bCap == 0 ? 1 : maxBudget / bCap;
+
+        int[] w = new int[n];
+        int[] c = new int[n];
+        double[] value = new double[n];
+        for (int i = 0; i < n; i++) {
+            Coffee coffee = items.get(i);
+            w[i] = units(coffee.getVolume(), volumeUnit);
+            c[i] = units(coffee.getPrice(), budgetUnit);
+            value[i] = valueFunction.applyAsDouble(coffee);
+        }
+
+        int row = bCap + 1;
+        int cells = (vCap + 1) * row;
+        double[] best = new double[cells];                  // best[v*row + b] — найкраща цінність при місткості (v, b)
+        long[] taken = new long[(int) (((long) n * cells + 63) >>> 6)]; // Чи взято товар i у стані (v, b)
+
+        for (int i = 0; i < n; i++) {
+            int wi = w[i];
+            int ci = c[i];
+            if (wi > vCap || ci > bCap) continue;
+            long base = (long) i * cells;
+            for (int v = vCap; v >= wi; v--) {
+                int rowStart = v * row;
+                int prevRowStart = (v - wi) * row;
+                for (int b = bCap; b >= ci; b--) {
+                    double candidate = best[prevRowStart + b - ci] + value[i];
+                    if (candidate > best[rowStart + b]) {
+                        best[rowStart + b] = candidate;
+                        long bit = base + rowStart + b;
+                        taken[(int) (bit >>> 6)] |= 1L << bit;
+                    }
+                }
+            }
+        }
+
+        // Відновлення набору з кінця
+        List<Coffee> chosen = new ArrayList<>();
+        boolean[] selected = new boolean[n];
+        int v = vCap;
+        int b = bCap;
+        for (int i = n - 1; i >= 0; i--) {
+            long bit = (long) i * cells + (long) v * row + b;
+            if ((taken[(int) (bit >>> 6)] & (1L << bit)) != 0) {
+                selected[i] = true;
+                v -= w[i];
+                b -= c[i];
+            }
+        }
+        double total = 0;
+        double usedVolume = 0;
+        double usedCost = 0;
+        for (int i = 0; i < n; i++) {
+            if (selected[i]) {
+                Coffee coffee = items.get(i);
+                if (usedVolume + coffee.getVolume() > maxVolume || usedCost + coffee.getPrice() > maxBudget) {
+                    selected[i] = false; // Реальна сума в double не влазить, хоча на сітці влазила
+                    continue;
+                }
+                chosen.add(coffee);
+                total += value[i];
+                usedVolume += coffee.getVolume();
+                usedCost += coffee.getPrice();
+            }
+        }
+        // Округлення вгору могло залишити реальний запас — доповнюємо жадібно
+        for (int i = 0; i < n; i++) {
+            Coffee coffee = items.get(i);
+            if (!selected[i] && usedVolume + coffee.getVolume() <= maxVolume
+                    && usedCost + coffee.getPrice() <= maxBudget) {
+                chosen.add(coffee);
+                total += value[i];
+                usedVolume += coffee.getVolume();
+                usedCost += coffee.getPrice();
+            }
+        }
+        return new LoadPlan(chosen, total, PlanMethod.DYNAMIC_PROGRAMMING);
+    }
+
+    /**
+     * Підбирає розміри сітки: спершу природний крок 0.01, а якщо клітинок забагато —
+     * рівномірно огрублює обидві осі.
+     */
+    private static int[] chooseGrid(double maxVolume, double maxBudget, long cellLimit) {
+        long vNatural = Math.max(0, (long) Math.floor(maxVolume / RESOLUTION + EPS));
+        long bNatural = Math.max(0, (long) Math.floor(maxBudget / RESOLUTION + EPS));
+        if ((vNatural + 1) * (bNatural + 1) <= cellLimit) {
+            return new int[]{(int) vNatural, (int) bNatural};
+        }
+        double scale = Math.sqrt((double) cellLimit / ((double) (vNatural + 1) * (bNatural + 1)));
+        long v = Math.max(1, Math.min(vNatural, (long) (vNatural * scale)));
+        long b = Math.max(1, Math.min(bNatural, cellLimit / (v + 1) - 1));
+        v = Math.max(1, Math.min(vNatural, cellLimit / (b + 1) - 1)); // Віддаємо залишок клітинок першій осі
+        return new int[]{(int) v, (int) b};
+    }
+
+    private static int units(double amount, double unit) {
+        return (int) Math.ceil(amount / unit - EPS);
+    }
+
+    // --------------------------------------------------
+    // ЖАДІБНИЙ АЛГОРИТМ З ПОКРАЩЕННЯМ
+    // --------------------------------------------------
+
+    /**
+     * Жадібно бере товари з найкращим співвідношенням "цінність / нормований розмір",
+     * після чого, поки є час, обмінює найдешевші за цінністю обрані товари на цінніші відкинуті.
+     */
+    private LoadPlan planGreedy(List<Coffee> items, double maxVolume, double maxBudget) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        int n = items.size();
+        double[] value = new double[n];
+        double[] efficiency = new double[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Coffee coffee = items.get(i);
+            value[i] = valueFunction.applyAsDouble(coffee);
+            double size = coffee.getVolume() / maxVolume + coffee.getPrice() / maxBudget;
+            efficiency[i] = size > 0 ? value[i] / size : Double.POSITIVE_INFINITY;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(efficiency[b], efficiency[a]));
+
+        boolean[] selected = new boolean[n];
+        double usedVolume = 0;
+        double usedCost = 0;
+        for (int i : order) {
+            Coffee coffee = items.get(i);
+            if (usedVolume + coffee.getVolume() <= maxVolume && usedCost + coffee.getPrice() <= maxBudget) {
+                selected[i] = true;
+                usedVolume += coffee.getVolume();
+                usedCost += coffee.getPrice();
+            }
+        }
+
+        // Обрані товари за зростанням цінності: перший допустимий кандидат на обмін дає найбільший виграш
+        List<Integer> chosenByValue = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (selected[i]) chosenByValue.add(i);
+        }
+        chosenByValue.sort((a, b) -> Double.compare(value[a], value[b]));
+
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = false;
+            for (int u : order) {
+                if (selected[u]) continue;
+                if (System.nanoTime() >= deadline) break;
+                Coffee in = items.get(u);
+                for (int k = 0; k < chosenByValue.size(); k++) {
+                    int s = chosenByValue.get(k);
+                    if (value[s] >= value[u]) break;
+                    Coffee out = items.get(s);
+                    double newVolume = usedVolume - out.getVolume() + in.getVolume();
+                    double newCost = usedCost - out.getPrice() + in.getPrice();
+                    if (newVolume <= maxVolume && newCost <= maxBudget) {
+                        selected[s] = false;
+                        selected[u] = true;
+                        usedVolume = newVolume;
+                        usedCost = newCost;
+                        chosenByValue.remove(k);
+                        int pos = insertionPoint(chosenByValue, value, value[u]);
+                        chosenByValue.add(pos, u);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+            // Після обмінів могло звільнитися місце — доповнюємо
+            for (int i : order) {
+                Coffee coffee = items.get(i);
+                if (!selected[i] && usedVolume + coffee.getVolume() <= maxVolume
+                        && usedCost + coffee.getPrice() <= maxBudget) {
+                    selected[i] = true;
+                    usedVolume += coffee.getVolume();
+                    usedCost += coffee.getPrice();
+                    chosenByValue.add(insertionPoint(chosenByValue, value, value[i]), i);
+                    improved = true;
+                }
+            }
+        }
+
+        List<Coffee> chosen = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            if (selected[i]) {
+                chosen.add(items.get(i));
+                total += value[i];
+            }
+        }
+        return new LoadPlan(chosen, total, PlanMethod.GREEDY_WITH_REPAIR);
+    }
+
+    // Позиція для вставки у список, впорядкований за зростанням цінності
+    private static int insertionPoint(List<Integer> byValue, double[] value, double v) {
+        int lo = 0;
+        int hi = byValue.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (value[byValue.get(mid)] < v) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
+
+// ==========================================
+// 6. ПАРК ФУРГОНІВ (FLEET)
+// ==========================================
+
+/**
+ * Стратегія розподілу замовлення по фургонах парку.
+ * Обидві стратегії спершу впорядковують товари за спаданням об'єму (потім ціни).
+ */
+enum FleetStrategy {
+    FIRST_FIT_DECREASING, // Перший фургон, у який товар вміщується
+    BEST_FIT              // Фургон, у якому після завантаження лишиться найменше місця
+}
+
+/**
+ * Звіт про розподіл замовлення: скільки товарів отримав кожен фургон,
+ * його заповненість за об'ємом і бюджетом, та товари, які нікуди не вмістились.
+ */
+class FleetAllocation {
+    private final List<Van> vans;
+    private final int[] placedPerVan;
+    private final List<Coffee> unallocated;
+    private final FleetStrategy strategy;
+    private final boolean parallel;
+
+    FleetAllocation(List<Van> vans, int[] placedPerVan, List<Coffee> unallocated,
+                    FleetStrategy strategy, boolean parallel) {
+        this.vans = vans;
+        this.placedPerVan = placedPerVan;
+        this.unallocated = unallocated;
+        this.strategy = strategy;
+        this.parallel = parallel;
+    }
+
+    public FleetStrategy getStrategy() { return strategy; }
+    public boolean isParallel() { return parallel; }
+    public int getVanCount() { return vans.size(); }
+    public List<Coffee> getUnallocated() { return Collections.unmodifiableList(unallocated); }
+
+    /**
+     * @return Кількість товарів замовлення, розміщених у фургоні з номером index.
+     */
+    public int getPlacedCount(int index) {
+        return placedPerVan[index];
+    }
+
+    public int getPlacedCount() {
+        int total = 0;
+        for (int n : placedPerVan) {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Частка зайнятого об'єму фургона (0..1) після розподілу.
+     */
+    public double getVolumeUtilization(int index) {
+        Van van = vans.get(index);
+        return van.getMaxVolume() > 0 ? van.getCurrentVolume() / van.getMaxVolume() : 0;
+    }
+
+    /**
+     * Частка використаного бюджету фургона (0..1) після розподілу.
+     */
+    public double getBudgetUtilization(int index) {
+        Van van = vans.get(index);
+        return van.getMaxBudget() > 0 ? van.getCurrentCost() / van.getMaxBudget() : 0;
+    }
+
+    /**
+     * Середня заповненість за об'ємом по всіх фургонах парку.
+     */
+    public double getAverageVolumeUtilization() {
+        double sum = 0;
+        for (int i = 0; i < vans.size(); i++) {
+            sum += getVolumeUtilization(i);
+        }
+        return sum / vans.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("РОЗПОДІЛ ПО ПАРКУ (%s, паралельно: %s): розміщено %d, не розміщено %d%n",
+                strategy, parallel ? "так" : "ні", getPlacedCount(), unallocated.size()));
+        for (int i = 0; i < vans.size(); i++) {
+            sb.append(String.format("  Фургон #%d: нових товарів %d | об'єм %.1f%% | бюджет %.1f%%%n",
+                    i + 1, placedPerVan[i], getVolumeUtilization(i) * 100, getBudgetUtilization(i) * 100));
+        }
+        for (Coffee c : unallocated) {
+            sb.append("  Не розміщено: ").append(c.getName()).append(System.lineSeparator());
+        }
+        return sb.toString().trim();
+    }
+}
+
+/**
+ * Парк фургонів, що розподіляє замовлення між кількома фургонами з урахуванням
+ * обмежень кожного з них за об'ємом і бюджетом.
+ * Рішення про розміщення приймаються на локальних масивах залишків (без виключень),
+ * після чого товари завантажуються у фургони через Van.tryLoad в одному потоці,
+ * тож слухачі подій фургонів не потребують синхронізації.
+ * Великі замовлення розподіляються паралельно у ForkJoinPool: фургони і товари
+ * рекурсивно діляться навпіл, а те, що не вмістилось у "свою" половину парку,
+ * наприкінці перерозподіляється послідовно по всьому парку.
+ */
+class Fleet {
+    /** Мінімальна кількість товарів, з якої розподіл виконується паралельно. */
+    static final int PARALLEL_THRESHOLD = 4096;
+
+    // Спершу більші за об'ємом, за рівного об'єму — дорожчі
+    private static final Comparator<Coffee> DECREASING =
+            Comparator.comparingDouble(Coffee::getVolume).thenComparingDouble(Coffee::getPrice).reversed();
+
+    private final List<Van> vans;
+    private final ForkJoinPool pool;
+
+    /**
+     * Створює парк, що використовує спільний ForkJoinPool.
+     *
+     * @param vans Фургони парку (порядок важливий для FIRST_FIT_DECREASING).
+     */
+    public Fleet(List<Van> vans) {
+        this(vans, ForkJoinPool.commonPool());
+    }
+
+    public Fleet(List<Van> vans, ForkJoinPool pool) {
+        if (vans.isEmpty()) {
+            throw new IllegalArgumentException("Парк має містити хоча б один фургон.");
+        }
+        this.vans = new ArrayList<>(vans);
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    public List<Van> getVans() {
+        return Collections.unmodifiableList(vans);
+    }
 
     /**
-     * Створює порожній фургон із заданими обмеженнями.
+     * Розподіляє замовлення по фургонах парку та завантажує їх.
+     * Фургони можуть бути вже частково заповнені — враховуються лише залишки.
      *
-     * @param maxVolume Максимальний об'єм вантажу.
-     * @param maxBudget Максимальна сума грошей.
+     * @param order    Товари замовлення.
+     * @param strategy Стратегія вибору фургона для кожного товару.
+     * @return Звіт про розподіл та заповненість фургонів.
      */
-    public Van(double maxVolume, double maxBudget) {
-        this.maxVolume = maxVolume;
-        this.maxBudget = maxBudget;
-        this.currentVolume = 0;
-        this.currentCost = 0;
-        this.cargo = new ArrayList<>();
+    public FleetAllocation allocate(List<Coffee> order, FleetStrategy strategy) {
+        Coffee[] items = order.toArray(new Coffee[0]);
+        Arrays.sort(items, DECREASING);
+        Packing packing = new Packing(items, strategy);
+        int[] placedPerVan = new int[vans.size()];
+        List<Coffee> unallocated = new ArrayList<>();
+
+        int[] all = new int[items.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        boolean parallel = items.length >= PARALLEL_THRESHOLD && vans.size() > 1;
+        if (parallel) {
+            pool.invoke(new PackTask(packing, all, 0, vans.size()));
+            int[] leftovers = packing.apply(all, placedPerVan, null);
+            packing.place(leftovers, 0, vans.size());
+            packing.apply(leftovers, placedPerVan, unallocated);
+        } else {
+            packing.place(all, 0, vans.size());
+            packing.apply(all, placedPerVan, unallocated);
+        }
+        return new FleetAllocation(vans, placedPerVan, unallocated, strategy, parallel);
     }
 
     /**
-     * Намагається завантажити товар у фургон.
-     * Перевіряє, чи не перевищено обсяг та бюджет.
-     *
-     * @param coffee Об'єкт товару.
-     * @throws VanCapacityExceededException Якщо товар не влазить фізично.
-     * @throws BudgetExceededException      Якщо на товар не вистачає грошей.
+     * Стан одного розподілу: залишки фургонів та обраний фургон для кожного товару.
+     * Різні задачі ForkJoin працюють з різними фургонами та товарами, тому масиви не потребують блокувань.
      */
-    public void loadCoffee(Coffee coffee) throws VanCapacityExceededException, BudgetExceededException {
-        if (currentVolume + coffee.getVolume() > maxVolume) {
-            throw new VanCapacityExceededException("ПОМИЛКА: Фургон переповнений! Не можна додати: " + coffee.getName());
+    private final class Packing {
+        final Coffee[] items;
+        final FleetStrategy strategy;
+        final double[] usedVolume;
+        final double[] usedCost;
+        final double[] maxVolume;
+        final double[] maxBudget;
+        final int[] target; // Номер фургона для товару або -1
+
+        Packing(Coffee[] items, FleetStrategy strategy) {
+            this.items = items;
+            this.strategy = strategy;
+            int m = vans.size();
+            usedVolume = new double[m];
+            usedCost = new double[m];
+            maxVolume = new double[m];
+            maxBudget = new double[m];
+            for (int v = 0; v < m; v++) {
+                Van van = vans.get(v);
+                usedVolume[v] = van.getCurrentVolume();
+                usedCost[v] = van.getCurrentCost();
+                maxVolume[v] = van.getMaxVolume();
+                maxBudget[v] = van.getMaxBudget();
+            }
+            target = new int[items.length];
+            Arrays.fill(target, -1);
         }
-        if (currentCost + coffee.getPrice() > maxBudget) {
-            throw new BudgetExceededException("ПОМИЛКА: Бюджет вичерпано! Не можна купити: " + coffee.getName());
+
+        /**
+         * Обирає фургони з діапазону [vanFrom, vanTo) для товарів indices (у порядку масиву).
+         */
+        void place(int[] indices, int vanFrom, int vanTo) {
+            for (int i : indices) {
+                double volume = items[i].getVolume();
+                double price = items[i].getPrice();
+                int chosen = -1;
+                double bestSlack = Double.POSITIVE_INFINITY;
+                for (int v = vanFrom; v < vanTo; v++) {
+                    // Та сама перевірка, що й у Van.check
+                    if (usedVolume[v] + volume > maxVolume[v] || usedCost[v] + price > maxBudget[v]) {
+                        continue;
+                    }
+                    if (strategy == FleetStrategy.FIRST_FIT_DECREASING) {
+                        chosen = v;
+                        break;
+                    }
+                    double slack = maxVolume[v] - usedVolume[v] - volume;
+                    if (slack < bestSlack) {
+                        bestSlack = slack;
+                        chosen = v;
+                    }
+                }
+                if (chosen >= 0) {
+                    usedVolume[chosen] += volume;
+                    usedCost[chosen] += price;
+                }
+                target[i] = chosen;
+            }
         }
 
-        cargo.add(coffee);
-        currentVolume += coffee.getVolume();
-        currentCost += coffee.getPrice();
-        System.out.println("Успішно завантажено: " + coffee.getName());
+        /**
+         * Завантажує обрані товари у фургони (у порядку прийняття рішень).
+         *
+         * @param unallocated Куди складати нерозміщені товари; якщо null — вони повертаються.
+         * @return Індекси нерозміщених товарів.
+         */
+        int[] apply(int[] indices, int[] placedPerVan, List<Coffee> unallocated) {
+            int[] rejected = new int[indices.length];
+            int count = 0;
+            for (int i : indices) {
+                int v = target[i];
+                if (v >= 0 && vans.get(v).tryLoad(items[i]).isAccepted()) {
+                    placedPerVan[v]++;
+                } else {
+                    rejected[count++] = i;
+                    if (unallocated != null) {
+                        unallocated.add(items[i]);
+                    }
+                }
+            }
+            return Arrays.copyOf(rejected, count);
+        }
     }
 
     /**
-     * Сортує вантаж у фургоні на основі співвідношення ціни та ваги (Price / Weight).
-     * Використовує стандартний компаратор.
+     * Рекурсивно ділить фургони навпіл, а товари — між половинами почергово
+     * (пропорційно кількості фургонів), щоб обидві половини отримали схожий розподіл розмірів.
      */
-    public void sortByPriceToWeightRatio() {
-        // Сортування за зростанням співвідношення
-        Collections.sort(cargo, Comparator.comparingDouble(Coffee::getPriceToWeightRatio));
+    private static final class PackTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Packing packing;
+        private final int[] indices;
+        private final int vanFrom;
+        private final int vanTo;
+
+        PackTask(Packing packing, int[] indices, int vanFrom, int vanTo) {
+            this.packing = packing;
+            this.indices = indices;
+            this.vanFrom = vanFrom;
+            this.vanTo = vanTo;
+        }
+
+        @Override
+        protected void compute() {
+            int vanCount = vanTo - vanFrom;
+            if (vanCount == 1 || indices.length < PARALLEL_THRESHOLD) {
+                packing.place(indices, vanFrom, vanTo);
+                return;
+            }
+            int leftVans = vanCount / 2;
+            int[] left = new int[(int) ((long) indices.length * leftVans / vanCount) + 1];
+            int[] right = new int[indices.length - left.length + 2];
+            int l = 0;
+            int r = 0;
+            for (int k = 0; k < indices.length; k++) {
+                // Ліва половина отримує частку leftVans / vanCount, рівномірно по всьому впорядкованому списку
+                if ((long) (k + 1) * leftVans / vanCount > (long) k * leftVans / vanCount) {
+                    left[l++] = indices[k];
+                } else {
+                    right[r++] = indices[k];
+                }
+            }
+            int mid = vanFrom + leftVans;
+            invokeAll(new PackTask(packing, Arrays.copyOf(left, l), vanFrom, mid),
+                      new PackTask(packing, Arrays.copyOf(right, r), mid, vanTo));
+        }
     }
+}
+
+// ==========================================
+// 7. ІМПОРТ КАТАЛОГУ (CATALOGUE IMPORT)
+// ==========================================
+
+/**
+ * Підсумок імпорту каталогу.
+ */
+class ImportStats {
+    private long rows;          // Успішно розібрані товари
+    private long malformed;     // Некоректні рядки (пропущені)
+    private long accepted;      // Прийняті фургоном (лише для importInto)
+    private long rejected;      // Відхилені фургоном (лише для importInto)
+    private String firstMalformed;
+
+    public long getRows() { return rows; }
+    public long getMalformed() { return malformed; }
+    public long getAccepted() { return accepted; }
+    public long getRejected() { return rejected; }
 
     /**
-     * Знаходить товари, які відповідають заданому діапазону якості.
-     *
-     * @param minQuality Мінімальна якість.
-     * @param maxQuality Максимальна якість.
-     * @return Список знайдених товарів.
+     * @return Перший некоректний рядок (обрізаний) або null.
      */
-    public List<Coffee> findByQualityRange(int minQuality, int maxQuality) {
-        List<Coffee> result = new ArrayList<>();
-        for (Coffee c : cargo) {
-            if (c.getQuality() >= minQuality && c.getQuality() <= maxQuality) {
-                result.add(c);
+    public String getFirstMalformed() { return firstMalformed; }
+
+    void row() { rows++; }
+
+    void malformed(String line) {
+        if (malformed++ == 0) {
+            firstMalformed = line;
+        }
+    }
+
+    void loaded(LoadResult result) {
+        if (result.isAccepted()) {
+            accepted++;
+        } else {
+            rejected++;
+        }
+    }
+
+    void loaded(BatchLoadResult batch) {
+        accepted += batch.getAcceptedCount();
+        rejected += batch.getRejectedCount();
+    }
+
+    /**
+     * Додає підсумок іншої частини файлу (частини об'єднуються в порядку файлу).
+     */
+    void merge(ImportStats other) {
+        if (firstMalformed == null) {
+            firstMalformed = other.firstMalformed;
+        }
+        rows += other.rows;
+        malformed += other.malformed;
+        accepted += other.accepted;
+        rejected += other.rejected;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ІМПОРТ: розібрано %d, некоректних %d | фургон: прийнято %d, відхилено %d",
+                rows, malformed, accepted, rejected);
+    }
+}
+
+/**
+ * Потоковий імпорт каталогу кави з файлу довільного розміру.
+ * Файл читається через FileChannel шматками фіксованого розміру, рядки розбираються прямо
+ * з байтів буфера (власний розбір чисел, без regex та проміжних рядків), тож на рядок
+ * виділяються лише назва та сам об'єкт Coffee.
+ *
+ * Підтримуються два формати рядків (їх можна змішувати в одному файлі):
+ *   CSV:        type,name,price,weight,volume,quality[,packaging]
+ *   JSON Lines: {"type":"INSTANT","name":"Jacobs","price":200,"weight":0.2,"volume":0.4,"quality":60,"packaging":"Банка"}
+ * Тип — BEANS, GROUND або INSTANT (без урахування регістру). Назву в CSV можна взяти в лапки.
+ * Порожні рядки, рядки з '#' та заголовок CSV (перше поле "type") пропускаються;
+ * некоректні рядки рахуються в ImportStats і теж пропускаються.
+ *
+ * Паралельний режим ділить файл на частини по межах рядків і розбирає їх у ForkJoinPool.
+ */
+class CoffeeCatalogImporter {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    static final int BATCH_SIZE = 4096; // Пакет для loadAll при паралельному імпорті у звичайний Van
+    private static final int MAX_ERROR_LENGTH = 200;
+
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    public CoffeeCatalogImporter() {
+        this(DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param chunkSize Розмір буфера читання (довші рядки збільшують буфер автоматично).
+     * @param pool      Пул для паралельного режиму.
+     */
+    public CoffeeCatalogImporter(int chunkSize, ForkJoinPool pool) {
+        if (chunkSize < 64) {
+            throw new IllegalArgumentException("Розмір шматка має бути не меншим за 64 байти.");
+        }
+        this.chunkSize = chunkSize;
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * Послідовно розбирає файл і передає кожен товар у sink у порядку файлу.
+     */
+    public ImportStats importFile(Path file, Consumer<? super Coffee> sink) throws IOException {
+        return run(file, false, () -> new SegmentSink() {
+            @Override
+            public void accept(Coffee coffee) {
+                sink.accept(coffee);
             }
+        });
+    }
+
+    /**
+     * Паралельно розбирає файл; sink викликається з кількох потоків і має бути потокобезпечним.
+     */
+    public ImportStats importFileParallel(Path file, Consumer<? super Coffee> sink) throws IOException {
+        return run(file, true, () -> new SegmentSink() {
+            @Override
+            public void accept(Coffee coffee) {
+                sink.accept(coffee);
+            }
+        });
+    }
+
+    /**
+     * Імпортує каталог прямо у фургон через tryLoad (відмови рахуються, а не кидаються).
+     * У паралельному режимі ConcurrentVan отримує товари з усіх потоків одночасно,
+     * а звичайний Van — пакетами через loadAll під блокуванням фургона
+     * (порядок завантаження тоді не збігається з порядком файлу).
+     */
+    public ImportStats importInto(Path file, Van van, boolean parallel) throws IOException {
+        if (!parallel || van instanceof ConcurrentVan) {
+            return run(file, parallel, () -> new SegmentSink() {
+                @Override
+                public void accept(Coffee coffee) {
+                    stats.loaded(van.tryLoad(coffee));
+                }
+            });
         }
-        return result;
+        return run(file, true, () -> new SegmentSink() {
+            private final List<Coffee> batch = new ArrayList<>(BATCH_SIZE);
+
+            @Override
+            public void accept(Coffee coffee) {
+                batch.add(coffee);
+                if (batch.size() == BATCH_SIZE) {
+                    finish();
+                }
+            }
+
+            @Override
+            void finish() {
+                if (!batch.isEmpty()) {
+                    synchronized (van) {
+                        stats.loaded(van.loadAll(batch));
+                    }
+                    batch.clear();
+                }
+            }
+        });
     }
 
     /**
-     * Виводить у консоль поточний стан фургона та список товарів.
+     * Приймач товарів однієї частини файлу зі своєю статистикою (без спільного стану між потоками).
      */
-    public void printCargoInfo() {
-        System.out.println("\n------------------------------------------------------------------------------------------");
-        System.out.printf("СТАН ФУРГОНА: Об'єм %.2f / %.2f | Бюджет %.2f / %.2f%n",
-                currentVolume, maxVolume, currentCost, maxBudget);
-        System.out.println("------------------------------------------------------------------------------------------");
-        if (cargo.isEmpty()) {
-            System.out.println("Фургон порожній.");
-        } else {
-            for (Coffee c : cargo) {
-                System.out.println(c);
+    private abstract static class SegmentSink implements Consumer<Coffee> {
+        final ImportStats stats = new ImportStats();
+
+        void finish() { }
+    }
+
+    private ImportStats run(Path file, boolean parallel, Supplier<SegmentSink> sinks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parts = parallel ? (int) Math.min(pool.getParallelism(), size / chunkSize + 1) : 1;
+            if (parts <= 1) {
+                SegmentSink sink = sinks.get();
+                scan(channel, 0, size, sink);
+                sink.finish();
+                return sink.stats;
             }
+            // Межі частин зсуваються на початок наступного рядка
+            long[] bounds = new long[parts + 1];
+            bounds[parts] = size;
+            for (int i = 1; i < parts; i++) {
+                bounds[i] = Math.max(bounds[i - 1], nextLineStart(channel, size * i / parts, size));
+            }
+            List<Callable<ImportStats>> tasks = new ArrayList<>(parts);
+            for (int i = 0; i < parts; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(() -> {
+                    SegmentSink sink = sinks.get();
+                    scan(channel, start, end, sink);
+                    sink.finish();
+                    return sink.stats;
+                });
+            }
+            ImportStats total = new ImportStats();
+            for (Future<ImportStats> part : pool.invokeAll(tasks)) {
+                total.merge(join(part));
+            }
+            return total;
+        }
+    }
+
+    private static ImportStats join(Future<ImportStats> part) throws IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Імпорт перервано.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Позиція першого рядка, що починається не раніше за position.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long pos = position - 1; // Якщо position — уже початок рядка, попередній байт — '\n'
+        while (pos < size) {
+            buffer.clear();
+            int n = channel.read(buffer, pos);
+            if (n <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < n; i++) {
+                if (bytes[i] == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    /**
+     * Читає ділянку [start, end) шматками та розбирає кожен рядок. Неповний рядок у кінці
+     * шматка переноситься на початок буфера; якщо рядок довший за буфер, буфер подвоюється.
+     */
+    private void scan(FileChannel channel, long start, long end, SegmentSink sink) throws IOException {
+        RowParser parser = new RowParser();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(chunkSize, Math.max(64, end - start)));
+        long pos = start;
+        int filled = 0;   // Байтів у буфері
+        int scanned = 0;  // Скільки з них уже переглянуто в пошуку '\n'
+        while (true) {
+            if (pos < end) {
+                buffer.limit((int) Math.min(buffer.capacity(), filled + (end - pos)));
+                buffer.position(filled);
+                int n = channel.read(buffer, pos);
+                if (n < 0) {
+                    end = pos;
+                } else {
+                    pos += n;
+                    filled += n;
+                }
+            }
+            byte[] bytes = buffer.array();
+            int lineStart = 0;
+            for (int i = scanned; i < filled; i++) {
+                if (bytes[i] == '\n') {
+                    parseLine(parser, bytes, lineStart, i, sink);
+                    lineStart = i + 1;
+                }
+            }
+            if (pos >= end) {
+                if (lineStart < filled) {
+                    parseLine(parser, bytes, lineStart, filled, sink);
+                }
+                return;
+            }
+            int rest = filled - lineStart;
+            if (rest == buffer.capacity()) {
+                ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() << 1);
+                bigger.put(bytes, 0, filled);
+                buffer = bigger;
+            } else if (lineStart > 0) {
+                System.arraycopy(bytes, lineStart, bytes, 0, rest);
+            }
+            filled = rest;
+            scanned = rest;
+        }
+    }
+
+    private static void parseLine(RowParser parser, byte[] bytes, int from, int to, SegmentSink sink) {
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        while (from < to && (bytes[from] == ' ' || bytes[from] == '\t')) {
+            from++;
+        }
+        if (from == to || bytes[from] == '#') {
+            return;
+        }
+        int row = bytes[from] == '{' ? parser.parseJson(bytes, from, to) : parser.parseCsv(bytes, from, to);
+        if (row == RowParser.OK) {
+            sink.stats.row();
+            sink.accept(parser.build());
+        } else if (row == RowParser.MALFORMED) {
+            int length = Math.min(to - from, MAX_ERROR_LENGTH);
+            sink.stats.malformed(new String(bytes, from, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Розбір одного рядка в поля товару. Один екземпляр на потік: буфер для розекранування
+     * та кеш типів упаковки перевикористовуються між рядками.
+     */
+    private static final class RowParser {
+        static final int OK = 0;
+        static final int HEADER = 1;
+        static final int MALFORMED = 2;
+
+        private static final byte[] BEANS = bytes("BEANS");
+        private static final byte[] GROUND = bytes("GROUND");
+        private static final byte[] INSTANT = bytes("INSTANT");
+        private static final byte[] TYPE = bytes("TYPE");
+        private static final double[] POW10 = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+        private static final int MAX_PACKAGINGS = 16;
+
+        private byte[] scratch = new byte[64];
+        private final List<byte[]> packagingBytes = new ArrayList<>();
+        private final List<String> packagingValues = new ArrayList<>();
+
+        // Поля поточного рядка
+        private byte[] type;
+        private String name;
+        private double price;
+        private double weight;
+        private double volume;
+        private int quality;
+        private String packaging;
+        private int mask; // Які поля знайдено (біт на поле)
+
+        // Межі останнього прочитаного значення: [valueFrom, valueTo) у bytes або у scratch
+        private byte[] valueBytes;
+        private int valueFrom;
+        private int valueTo;
+
+        private static final int F_TYPE = 1, F_NAME = 2, F_PRICE = 4, F_WEIGHT = 8,
+                F_VOLUME = 16, F_QUALITY = 32, F_PACKAGING = 64;
+        private static final int REQUIRED = F_TYPE | F_NAME | F_PRICE | F_WEIGHT | F_VOLUME | F_QUALITY;
+
+        Coffee build() {
+            if (type == BEANS) {
+                return new CoffeeBeans(name, price, weight, volume, quality);
+            }
+            if (type == GROUND) {
+                return new GroundCoffee(name, price, weight, volume, quality);
+            }
+            return new InstantCoffee(name, price, weight, volume, quality, packaging);
+        }
+
+        int parseCsv(byte[] b, int from, int to) {
+            mask = 0;
+            packaging = null;
+            int pos = from;
+            for (int field = 0; pos <= to; field++) {
+                int next = readCsvValue(b, pos, to);
+                if (next < 0) {
+                    return MALFORMED;
+                }
+                if (field == 0 && matches(TYPE)) {
+                    return HEADER;
+                }
+                if (field > 6 || !assign(CSV_FIELDS[field])) {
+                    return MALFORMED;
+                }
+                pos = next + 1;
+            }
+            return complete();
+        }
+
+        private static final int[] CSV_FIELDS = {F_TYPE, F_NAME, F_PRICE, F_WEIGHT, F_VOLUME, F_QUALITY, F_PACKAGING, 0};
+
+        /**
+         * Читає CSV-поле, що починається з pos (у лапках або без).
+         * @return Позиція коми після поля (або to), чи -1 при помилці.
+         */
+        private int readCsvValue(byte[] b, int pos, int to) {
+            if (pos < to && b[pos] == '"') {
+                int n = 0;
+                int i = pos + 1;
+                while (true) {
+                    if (i >= to) {
+                        return -1;
+                    }
+                    if (b[i] == '"') {
+                        if (i + 1 < to && b[i + 1] == '"') {
+                            n = putScratch(n, b[i]);
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    n = putScratch(n, b[i++]);
+                }
+                if (i < to && b[i] != ',') {
+                    return -1;
+                }
+                setValue(scratch, 0, n);
+                return i;
+            }
+            int end = pos;
+            while (end < to && b[end] != ',') {
+                end++;
+            }
+            int s = pos;
+            int e = end;
+            while (s < e && b[s] == ' ') s++;
+            while (e > s && b[e - 1] == ' ') e--;
+            setValue(b, s, e);
+            return end;
+        }
+
+        int parseJson(byte[] b, int from, int to) {
+            mask = 0;
+            packaging = null;
+            int pos = skipSpaces(b, from + 1, to);
+            if (pos < to && b[pos] == '}') {
+                return MALFORMED;
+            }
+            while (pos < to) {
+                // Ключ
+                pos = readJsonString(b, pos, to);
+                if (pos < 0) {
+                    return MALFORMED;
+                }
+                int field = jsonField();
+                pos = skipSpaces(b, pos, to);
+                if (pos >= to || b[pos] != ':') {
+                    return MALFORMED;
+                }
+                pos = skipSpaces(b, pos + 1, to);
+                // Значення: рядок або скаляр (число, true/false/null)
+                if (pos < to && b[pos] == '"') {
+                    pos = readJsonString(b, pos, to);
+                } else {
+                    int end = pos;
+                    while (end < to && b[end] != ',' && b[end] != '}' && b[end] != ' ' && b[end] != '\t') {
+                        end++;
+                    }
+                    setValue(b, pos, end);
+                    pos = end == pos ? -1 : end;
+                }
+                if (pos < 0 || (field != 0 && !assign(field))) {
+                    return MALFORMED;
+                }
+                pos = skipSpaces(b, pos, to);
+                if (pos < to && b[pos] == ',') {
+                    pos = skipSpaces(b, pos + 1, to);
+                } else if (pos < to && b[pos] == '}') {
+                    return skipSpaces(b, pos + 1, to) == to ? complete() : MALFORMED;
+                } else {
+                    return MALFORMED;
+                }
+            }
+            return MALFORMED;
+        }
+
+        private int jsonField() {
+            switch (valueTo - valueFrom) {
+                case 4: return matchesExact("type") ? F_TYPE : matchesExact("name") ? F_NAME : 0;
+                case 5: return matchesExact("price") ? F_PRICE : 0;
+                case 6: return matchesExact("weight") ? F_WEIGHT : matchesExact("volume") ? F_VOLUME : 0;
+                case 7: return matchesExact("quality") ? F_QUALITY : 0;
+                case 9: return matchesExact("packaging") ? F_PACKAGING : 0;
+                default: return 0;
+            }
+        }
+
+        /**
+         * Читає JSON-рядок у scratch (з розекрануванням).
+         * @return Позиція після закривальних лапок або -1.
+         */
+        private int readJsonString(byte[] b, int pos, int to) {
+            if (pos >= to || b[pos] != '"') {
+                return -1;
+            }
+            int n = 0;
+            int i = pos + 1;
+            while (i < to && b[i] != '"') {
+                byte c = b[i++];
+                if (c == '\\') {
+                    if (i >= to) {
+                        return -1;
+                    }
+                    byte e = b[i++];
+                    switch (e) {
+                        case 'n': n = putScratch(n, (byte) '\n'); break;
+                        case 't': n = putScratch(n, (byte) '\t'); break;
+                        case 'r': n = putScratch(n, (byte) '\r'); break;
+                        case 'b': n = putScratch(n, (byte) '\b'); break;
+                        case 'f': n = putScratch(n, (byte) '\f'); break;
+                        case 'u': {
+                            if (i + 4 > to) {
+                                return -1;
+                            }
+                            int code = 0;
+                            for (int k = 0; k < 4; k++) {
+                                int d = Character.digit(b[i++], 16);
+                                if (d < 0) {
+                                    return -1;
+                                }
+                                code = (code << 4) | d;
+                            }
+                            n = putUtf8(n, code);
+                            break;
+                        }
+                        default: n = putScratch(n, e); // \" \\ \/
+                    }
+                } else {
+                    n = putScratch(n, c);
+                }
+            }
+            if (i >= to) {
+                return -1;
+            }
+            setValue(scratch, 0, n);
+            return i + 1;
+        }
+
+        /**
+         * Записує поточне значення в поле товару.
+         */
+        private boolean assign(int field) {
+            if ((mask & field) != 0) {
+                return false; // Поле повторюється
+            }
+            switch (field) {
+                case F_TYPE:
+                    type = matches(BEANS) ? BEANS : matches(GROUND) ? GROUND : matches(INSTANT) ? INSTANT : null;
+                    if (type == null) return false;
+                    break;
+                case F_NAME:
+                    name = new String(valueBytes, valueFrom, valueTo - valueFrom, StandardCharsets.UTF_8);
+                    break;
+                case F_PRICE:
+                    price = parseDouble();
+                    if (Double.isNaN(price)) return false;
+                    break;
+                case F_WEIGHT:
+                    weight = parseDouble();
+                    if (Double.isNaN(weight)) return false;
+                    break;
+                case F_VOLUME:
+                    volume = parseDouble();
+                    if (Double.isNaN(volume)) return false;
+                    break;
+                case F_QUALITY:
+                    long q = parseLong();
+                    if (q < Integer.MIN_VALUE || q > Integer.MAX_VALUE) return false;
+                    quality = (int) q;
+                    break;
+                case F_PACKAGING:
+                    packaging = packagingValue();
+                    break;
+                default:
+                    return false;
+            }
+            mask |= field;
+            return true;
+        }
+
+        private int complete() {
+            if ((mask & REQUIRED) != REQUIRED || (type == INSTANT && packaging == null)) {
+                return MALFORMED;
+            }
+            return OK;
+        }
+
+        /**
+         * Розбирає десяткове число з поточного значення. Звичайні записи
+         * (до 15 значущих цифр, без експоненти)
+         * обчислюються одним точним діленням; решта — через Double.parseDouble.
+         * @return Число або NaN, якщо значення не є числом.
+         */
+        private double parseDouble() {
+            byte[] b = valueBytes;
+            int i = valueFrom;
+            int to = valueTo;
+            boolean negative = false;
+            if (i < to && (b[i] == '-' || b[i] == '+')) {
+                negative = b[i++] == '-';
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fraction = -1; // Кількість цифр після крапки (-1 — крапки не було)
+            int start = i;
+            for (; i < to; i++) {
+                byte c = b[i];
+                if (c >= '0' && c <= '9') {
+                    if (digits < 15) { // До 15 значущих цифр мантиса точно представляється в double
+                        mantissa = mantissa * 10 + (c - '0');
+                        digits += mantissa == 0 ? 0 : 1;
+                    } else {
+                        return slowParse();
+                    }
+                    if (fraction >= 0) {
+                        fraction++;
+                    }
+                } else if (c == '.' && fraction < 0) {
+                    fraction = 0;
+                } else if (c == 'e' || c == 'E') {
+                    return slowParse();
+                } else {
+                    return Double.NaN;
+                }
+            }
+            if (i == start || (fraction >= 0 && i - start == 1)) {
+                return Double.NaN; // Порожньо або лише "."
+            }
+            double value = mantissa;
+            if (fraction > 0) {
+                if (fraction >= POW10.length) {
+                    return slowParse();
+                }
+                value /= POW10[fraction];
+            }
+            return negative ? -value : value;
+        }
+
+        private double slowParse() {
+            try {
+                return Double.parseDouble(new String(valueBytes, valueFrom, valueTo - valueFrom, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        /**
+         * @return Ціле число або Long.MIN_VALUE, якщо значення не є цілим.
+         */
+        private long parseLong() {
+            byte[] b = valueBytes;
+            int i = valueFrom;
+            boolean negative = false;
+            if (i < valueTo && (b[i] == '-' || b[i] == '+')) {
+                negative = b[i++] == '-';
+            }
+            if (i == valueTo || valueTo - i > 18) {
+                return Long.MIN_VALUE;
+            }
+            long value = 0;
+            for (; i < valueTo; i++) {
+                int d = b[i] - '0';
+                if (d < 0 || d > 9) {
+                    return Long.MIN_VALUE;
+                }
+                value = value * 10 + d;
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Типів упаковки в каталозі небагато, тому рядки для них кешуються й не створюються наново.
+         */
+        private String packagingValue() {
+            int length = valueTo - valueFrom;
+            for (int k = 0; k < packagingBytes.size(); k++) {
+                byte[] known = packagingBytes.get(k);
+                if (known.length == length && Arrays.equals(known, 0, length, valueBytes, valueFrom, valueTo)) {
+                    return packagingValues.get(k);
+                }
+            }
+            String value = new String(valueBytes, valueFrom, length, StandardCharsets.UTF_8);
+            if (packagingBytes.size() < MAX_PACKAGINGS) {
+                packagingBytes.add(Arrays.copyOfRange(valueBytes, valueFrom, valueTo));
+                packagingValues.add(value);
+            }
+            return value;
+        }
+
+        private boolean matches(byte[] upper) {
+            if (valueTo - valueFrom != upper.length) {
+                return false;
+            }
+            for (int k = 0; k < upper.length; k++) {
+                byte c = valueBytes[valueFrom + k];
+                if (c >= 'a' && c <= 'z') {
+                    c -= 'a' - 'A';
+                }
+                if (c != upper[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matchesExact(String ascii) {
+            for (int k = 0; k < ascii.length(); k++) {
+                if (valueBytes[valueFrom + k] != ascii.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void setValue(byte[] b, int from, int to) {
+            valueBytes = b;
+            valueFrom = from;
+            valueTo = to;
+        }
+
+        private int putScratch(int n, byte c) {
+            if (n == scratch.length) {
+                scratch = Arrays.copyOf(scratch, n << 1);
+            }
+            scratch[n] = c;
+            return n + 1;
+        }
+
+        private int putUtf8(int n, int code) {
+            if (code < 0x80) {
+                return putScratch(n, (byte) code);
+            }
+            if (code < 0x800) {
+                n = putScratch(n, (byte) (0xC0 | (code >> 6)));
+            } else {
+                n = putScratch(n, (byte) (0xE0 | (code >> 12)));
+                n = putScratch(n, (byte) (0x80 | ((code >> 6) & 0x3F)));
+            }
+            return putScratch(n, (byte) (0x80 | (code & 0x3F)));
+        }
+
+        private static int skipSpaces(byte[] b, int pos, int to) {
+            while (pos < to && (b[pos] == ' ' || b[pos] == '\t')) {
+                pos++;
+            }
+            return pos;
+        }
+
+        private static byte[] bytes(String ascii) {
+            return ascii.getBytes(StandardCharsets.US_ASCII);
         }
-        System.out.println("------------------------------------------------------------------------------------------\n");
     }
 }
 
 // ==========================================
-// 4. ГОЛОВНИЙ КЛАС (MAIN)
+// 8. ГОЛОВНИЙ КЛАС (MAIN)
 // ==========================================
 
 /**
@@ -221,6 +2856,8 @@ public class Main {
     public static void main(String[] args) {
         // 1. Ініціалізація фургона (Об'єм: 50 од., Бюджет: 2000 грн)
         Van myVan = new Van(50.0, 2000.0);
+        VanMetrics metrics = new VanMetrics();
+        myVan.setEventListener(VanEventListener.compose(new ConsoleVanLogger(), metrics));
 
         // 2. Створення об'єктів кави різних видів
         Coffee c1 = new CoffeeBeans("Arabica Gold", 400.0, 1.0, 5.0, 90);
@@ -251,6 +2888,17 @@ public class Main {
             System.err.println(e.getMessage());
         }
 
+        // Пакетне завантаження без виключень: відмови повертаються як результат
+        BatchLoadResult batch = myVan.loadAll(List.of(cExpensive, cHuge));
+        for (int i = 0; i < batch.size(); i++) {
+            System.out.println("Пакетне завантаження: " + batch.getResult(i));
+        }
+        System.out.println(metrics);
+        CargoColumns columns = myVan.getColumns();
+        System.out.printf("АНАЛІТИКА: вага %.2f кг | середня якість %.1f | за типами %s | ціна/вага по 250: %s%n",
+                columns.totalWeight(), columns.averageQuality(), columns.countByType(),
+                Arrays.toString(columns.ratioHistogram(0, 1000, 4)));
+
         // Вивід вмісту до сортування
         System.out.println("Вміст до сортування:");
         myVan.printCargoInfo();
@@ -272,5 +2920,85 @@ public class Main {
                 System.out.println(" -> " + c.getName() + " (Якість: " + c.getQuality() + ")");
             }
         }
+
+        // Top-K без зміни порядку вантажу
+        System.out.println("\nНайвища якість (2): " + names(myVan.topByQuality(2)));
+        System.out.println("Найдешевші за кг (2): " + names(myVan.cheapestPerKg(2)));
+
+        // 5. Оптимальне планування завантаження порожнього фургона
+        System.out.println("\n=== ЕТАП 4: ПЛАНУВАННЯ (максимальна сумарна якість) ===");
+        Van plannedVan = new Van(50.0, 2000.0);
+        List<Coffee> candidates = List.of(c1, c2, c3, c4, c5, cExpensive, cHuge);
+        LoadPlan plan = new VanLoadPlanner().planFor(plannedVan, candidates);
+        System.out.println(plan);
+        try {
+            for (Coffee c : plan.getItems()) {
+                plannedVan.loadCoffee(c);
+            }
+        } catch (VanCapacityExceededException | BudgetExceededException e) {
+            System.err.println(e.getMessage());
+        }
+        plannedVan.printCargoInfo();
+
+        // 6. Розподіл замовлення по парку фургонів
+        System.out.println("=== ЕТАП 5: ПАРК ФУРГОНІВ ===");
+        Fleet fleet = new Fleet(List.of(new Van(10.0, 600.0), new Van(8.0, 500.0), new Van(50.0, 300.0)));
+        FleetAllocation allocation = fleet.allocate(candidates, FleetStrategy.BEST_FIT);
+        System.out.println(allocation);
+
+        // 7. Одночасне завантаження одного фургона з кількох потоків
+        System.out.println("\n=== ЕТАП 6: ПАРАЛЕЛЬНЕ ЗАВАНТАЖЕННЯ ===");
+        ConcurrentVan sharedVan = new ConcurrentVan(50.0, 2000.0);
+        VanMetrics sharedMetrics = new VanMetrics();
+        sharedVan.setEventListener(sharedMetrics);
+        Thread[] loaders = new Thread[4];
+        for (int t = 0; t < loaders.length; t++) {
+            loaders[t] = new Thread(() -> {
+                for (int i = 0; i < 150; i++) {
+                    sharedVan.tryLoad(c4);
+                }
+            });
+            loaders[t].start();
+        }
+        for (Thread loader : loaders) {
+            try {
+                loader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.printf("Завантажено %d товарів | Об'єм %.2f / 50.00 | Бюджет %.2f / 2000.00%n",
+                sharedVan.getCargoCount(), sharedVan.getCurrentVolume(), sharedVan.getCurrentCost());
+        System.out.println(sharedMetrics);
+
+        // 8. Імпорт каталогу з файлу замість ручного створення об'єктів
+        System.out.println("\n=== ЕТАП 7: ІМПОРТ КАТАЛОГУ ===");
+        try {
+            Path catalogue = Files.createTempFile("coffee-catalogue", ".csv");
+            Files.write(catalogue, List.of(
+                    "type,name,price,weight,volume,quality,packaging",
+                    "BEANS,Arabica Gold,400,1.0,5.0,90",
+                    "GROUND,Espresso Mix,150,0.25,0.5,75",
+                    "{\"type\":\"INSTANT\",\"name\":\"Jacobs\",\"price\":200,\"weight\":0.2,\"volume\":0.4,\"quality\":60,\"packaging\":\"Банка\"}",
+                    "INSTANT,\"Nescafe 3in1\",5,0.02,0.05,40,Пакетик",
+                    "BEANS,Kopi Luwak,1500,0.5,2.0,100",
+                    "BEANS,Broken Row,abc,1.0,5.0,50"), StandardCharsets.UTF_8);
+            Van importedVan = new Van(50.0, 2000.0);
+            ImportStats stats = new CoffeeCatalogImporter().importInto(catalogue, importedVan, false);
+            Files.delete(catalogue);
+            System.out.println(stats);
+            System.out.println("Перший некоректний рядок: " + stats.getFirstMalformed());
+            importedVan.printCargoInfo();
+        } catch (IOException e) {
+            System.err.println("Помилка імпорту: " + e.getMessage());
+        }
+    }
+
+    private static List<String> names(List<Coffee> coffees) {
+        List<String> names = new ArrayList<>(coffees.size());
+        for (Coffee c : coffees) {
+            names.add(c.getName());
+        }
+        return names;
     }
 }
@@ -1,8 +1,38 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
 import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NavigableSet;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 /**
  * Головний клас для демонстрації роботи колекції (Lab 6).
@@ -31,6 +61,10 @@ public class Main {
         boolean addedDuplicate = coffeeSet.add(c1);
         System.out.println("Чи додався дублікат c1? " + addedDuplicate); // Має бути false
 
+        // Рівний за значенням (але інший) об'єкт теж вважається дублікатом
+        boolean addedEqualCopy = coffeeSet.add(new CoffeeBeans("Arabica", 400, 1.0, 5.0, 90));
+        System.out.println("Чи додалась копія Arabica? " + addedEqualCopy); // Має бути false
+
         System.out.println("\nВміст колекції (через ітератор):");
         for (Coffee c : coffeeSet) {
             System.out.println(c);
@@ -51,6 +85,367 @@ public class Main {
         copySet.remove(c2);
         System.out.println("Чи містить c2? " + copySet.contains(c2));
         System.out.println("Розмір після видалення: " + copySet.size());
+
+        // 6. Потокобезпечна колекція: кілька потоків завантажують один Set
+        System.out.println("\nПаралельне завантаження у ConcurrentMySet (4 потоки)...");
+        ConcurrentMySet<Coffee> sharedSet = new ConcurrentMySet<>();
+        Coffee[] catalogue = {c1, c2, c3};
+        Thread[] loaders = new Thread[4];
+        for (int t = 0; t < loaders.length; t++) {
+            loaders[t] = new Thread(() -> {
+                for (Coffee c : catalogue) sharedSet.add(c);
+            });
+            loaders[t].start();
+        }
+        for (Thread loader : loaders) {
+            try {
+                loader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("Розмір спільного Set: " + sharedSet.size()); // Має бути 3
+
+        // 7. Збереження у двійковий знімок та швидке завантаження через відображення файлу
+        System.out.println("\nЗбереження та завантаження знімка колекції...");
+        try {
+            Path snapshotFile = Files.createTempFile("coffee-set", ".snap");
+            try {
+                CoffeeSnapshot.save(coffeeSet, snapshotFile);
+                MySet<Coffee> restored = CoffeeSnapshot.load(snapshotFile);
+                for (Coffee c : restored) System.out.println(c);
+            } finally {
+                Files.deleteIfExists(snapshotFile);
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка роботи зі знімком: " + e.getMessage());
+        }
+
+        // 8. Впорядкований Set: найдешевша за кілограм кава без сортування копії
+        System.out.println("\nВпорядкування за ціною за кг (SortedMySet):");
+        SortedMySet<Coffee> byPricePerKg = new SortedMySet<>(
+                Comparator.comparingDouble(Coffee::getPriceToWeightRatio).thenComparing(Coffee::getName),
+                coffeeSet);
+        System.out.println("Найдешевша за кг: " + byPricePerKg.first());
+        System.out.println("Найдорожча за кг: " + byPricePerKg.last());
+    }
+
+    // ==========================================
+    // БЕНЧМАРК
+    // ==========================================
+
+    /**
+     * Набір мікробенчмарків для порівняння MySet (та PooledMySet) зі стандартними HashSet / LinkedHashSet / TreeSet.
+     * Вимірює add, contains (влучання та промах), remove, ітерацію та addAll
+     * на розмірах від 10 до 1 000 000 елементів для вмісту Integer та Coffee.
+     * Для кожного випадку виводиться час (нс на елемент) та кількість виділеної пам'яті
+     * (байт на елемент) — аналог gc.alloc.rate.norm з GC-профайлера JMH.
+     *
+     * Вкладений у Main, щоб мати доступ до класів цього файлу; запуск (з каталогу lab6):
+     *   javac -d out Main.java
+     *   java -cp out 'Main$MySetBenchmark'              — усі розміри
+     *   java -cp out 'Main$MySetBenchmark' 1000 100000  — лише задані розміри
+     */
+    static final class MySetBenchmark {
+
+        private static final int[] DEFAULT_SIZES = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+        private static final int WARMUP_ROUNDS = 3;
+        private static final int MEASURE_ROUNDS = 5;
+        private static final long ROUND_NANOS = 100_000_000L; // Мінімальна тривалість одного раунду
+
+        // Результати операцій "споживаються" сюди, щоб JIT не викинув обчислення
+        private static volatile long sink;
+
+        private static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        public static void main(String[] args) {
+            int[] sizes = DEFAULT_SIZES;
+            if (args.length > 0) {
+                sizes = new int[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    sizes[i] = Integer.parseInt(args[i]);
+                }
+            }
+
+            System.out.printf("%-14s | %-7s | %-15s | %9s | %12s | %12s%n",
+                    "Операція", "Вміст", "Реалізація", "N", "нс/елемент", "байт/елемент");
+            System.out.println("---------------------------------------------------------------------------------------");
+            for (Payload payload : Payload.values()) {
+                for (int n : sizes) {
+                    Data data = new Data(payload, n);
+                    for (Operation op : Operation.values()) {
+                        for (Impl impl : Impl.values()) {
+                            Result r = measure(op, impl, data);
+                            System.out.printf("%-14s | %-7s | %-15s | %9d | %12.2f | %12.2f%n",
+                                    op, payload, impl, n, r.nanosPerElement, r.bytesPerElement);
+                        }
+                    }
+                }
+            }
+        }
+
+        // ==========================================
+        // РЕАЛІЗАЦІЇ ТА ВМІСТ
+        // ==========================================
+
+        /**
+         * Реалізації Set, що порівнюються.
+         */
+        private enum Impl {
+            MY_SET, POOLED_MY_SET, HASH_SET, LINKED_HASH_SET, TREE_SET;
+
+            Set<Object> create(Comparator<Object> comparator) {
+                switch (this) {
+                    case MY_SET: return new MySet<>();
+                    case POOLED_MY_SET: return new PooledMySet<>();
+                    case HASH_SET: return new HashSet<>();
+                    case LINKED_HASH_SET: return new LinkedHashSet<>();
+                    default: return new TreeSet<>(comparator);
+                }
+            }
+        }
+
+        /**
+         * Тип елементів. Для TreeSet кава впорядковується за всіма полями (узгоджено з equals).
+         */
+        private enum Payload {
+            INTEGER, COFFEE;
+
+            Object element(int value) {
+                if (this == INTEGER) {
+                    return value;
+                }
+                String name = "Coffee-" + value;
+                switch (Math.floorMod(value, 3)) {
+                    case 0: return new CoffeeBeans(name, 100 + Math.floorMod(value, 900), 1.0, 5.0, Math.floorMod(value, 100));
+                    case 1: return new GroundCoffee(name, 50 + Math.floorMod(value, 300), 0.25, 0.5, Math.floorMod(value, 100));
+                    default: return new InstantCoffee(name, 5 + Math.floorMod(value, 200), 0.2, 0.4, Math.floorMod(value, 100), "Банка");
+                }
+            }
+
+            @SuppressWarnings("unchecked")
+            Comparator<Object> comparator() {
+                if (this == INTEGER) {
+                    return (a, b) -> ((Comparable<Object>) a).compareTo(b);
+                }
+                Comparator<Coffee> byFields = Comparator.comparing(Coffee::getName)
+                        .thenComparingDouble(Coffee::getPrice)
+                        .thenComparingDouble(Coffee::getWeight)
+                        .thenComparingDouble(Coffee::getVolume)
+                        .thenComparingInt(Coffee::getQuality)
+                        .thenComparing(c -> c.getClass().getName());
+                return (a, b) -> byFields.compare((Coffee) a, (Coffee) b);
+            }
+        }
+
+        /**
+         * Набір даних для одного розміру: n елементів у Set, друге джерело для addAll
+         * (перетинається з першим наполовину) та n відсутніх елементів для промахів.
+         */
+        private static final class Data {
+            final Payload payload;
+            final int n;
+            final Object[] present;
+            final Object[] other;
+            final Object[] missing;
+            final Comparator<Object> comparator;
+
+            Data(Payload payload, int n) {
+                this.payload = payload;
+                this.n = n;
+                this.comparator = payload.comparator();
+                // 2.5n різних випадкових значень (IntMySet гарантує унікальність)
+                int total = n * 2 + n / 2 + 1;
+                int[] values = new int[total];
+                IntMySet seen = new IntMySet(total);
+                Random random = new Random(42);
+                for (int i = 0; i < total; ) {
+                    int v = random.nextInt();
+                    if (seen.add(v)) {
+                        values[i++] = v;
+                    }
+                }
+                present = new Object[n];
+                other = new Object[n];
+                missing = new Object[n];
+                for (int i = 0; i < n; i++) {
+                    present[i] = payload.element(values[i]);
+                    missing[i] = payload.element(values[n + n / 2 + 1 + i]);
+                }
+                for (int i = 0; i < n; i++) {
+                    int j = n / 2 + i;
+                    other[i] = j < n ? present[j] : payload.element(values[j]);
+                }
+            }
+
+            Set<Object> filled(Impl impl, Object[] elements) {
+                Set<Object> set = impl.create(comparator);
+                for (Object e : elements) set.add(e);
+                return set;
+            }
+        }
+
+        // ==========================================
+        // ОПЕРАЦІЇ
+        // ==========================================
+
+        /**
+         * Операція, що вимірюється. prepare() не входить у вимірювання;
+         * якщо consumesState, стан готується заново перед кожним викликом run().
+         */
+        private enum Operation {
+            ADD(false, 1) {
+                Object prepare(Impl impl, Data d) { return null; }
+                long run(Impl impl, Data d, Object state) {
+                    Set<Object> set = impl.create(d.comparator);
+                    for (Object e : d.present) set.add(e);
+                    return set.size();
+                }
+            },
+            CONTAINS_HIT(false, 1) {
+                Object prepare(Impl impl, Data d) { return d.filled(impl, d.present); }
+                @SuppressWarnings("unchecked")
+                long run(Impl impl, Data d, Object state) {
+                    Set<Object> set = (Set<Object>) state;
+                    long hits = 0;
+                    for (Object e : d.present) if (set.contains(e)) hits++;
+                    return hits;
+                }
+            },
+            CONTAINS_MISS(false, 1) {
+                Object prepare(Impl impl, Data d) { return d.filled(impl, d.present); }
+                @SuppressWarnings("unchecked")
+                long run(Impl impl, Data d, Object state) {
+                    Set<Object> set = (Set<Object>) state;
+                    long hits = 0;
+                    for (Object e : d.missing) if (set.contains(e)) hits++;
+                    return hits;
+                }
+            },
+            REMOVE(true, 1) {
+                Object prepare(Impl impl, Data d) { return d.filled(impl, d.present); }
+                @SuppressWarnings("unchecked")
+                long run(Impl impl, Data d, Object state) {
+                    Set<Object> set = (Set<Object>) state;
+                    for (Object e : d.present) set.remove(e);
+                    return set.size();
+                }
+            },
+            ITERATE(false, 1) {
+                Object prepare(Impl impl, Data d) { return d.filled(impl, d.present); }
+                @SuppressWarnings("unchecked")
+                long run(Impl impl, Data d, Object state) {
+                    long count = 0;
+                    for (Object e : (Set<Object>) state) if (e != null) count++;
+                    return count;
+                }
+            },
+            ADD_ALL(false, 2) {
+                Object prepare(Impl impl, Data d) {
+                    return new Object[]{d.filled(impl, d.present), d.filled(impl, d.other)};
+                }
+                @SuppressWarnings("unchecked")
+                long run(Impl impl, Data d, Object state) {
+                    Object[] sources = (Object[]) state;
+                    Set<Object> set = impl.create(d.comparator);
+                    set.addAll((Set<Object>) sources[0]);
+                    set.addAll((Set<Object>) sources[1]);
+                    return set.size();
+                }
+            };
+
+            final boolean consumesState;
+            final int elementsPerN; // Скільки елементів обробляє один виклик (у одиницях n)
+
+            Operation(boolean consumesState, int elementsPerN) {
+                this.consumesState = consumesState;
+                this.elementsPerN = elementsPerN;
+            }
+
+            abstract Object prepare(Impl impl, Data d);
+
+            abstract long run(Impl impl, Data d, Object state);
+        }
+
+        // ==========================================
+        // ВИМІРЮВАННЯ
+        // ==========================================
+
+        private static final class Result {
+            final double nanosPerElement;
+            final double bytesPerElement;
+
+            Result(double nanosPerElement, double bytesPerElement) {
+                this.nanosPerElement = nanosPerElement;
+                this.bytesPerElement = bytesPerElement;
+            }
+        }
+
+        /**
+         * Прогріває операцію, а потім усереднює кілька раундів вимірювання.
+         */
+        private static Result measure(Operation op, Impl impl, Data data) {
+            System.gc();
+            long[] totals = new long[3]; // час, пам'ять, кількість викликів
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+                long[] r = op.consumesState ? runConsuming(op, impl, data) : runBatched(op, impl, data);
+                if (round >= WARMUP_ROUNDS) {
+                    totals[0] += r[0];
+                    totals[1] += r[1];
+                    totals[2] += r[2];
+                }
+            }
+            double elements = (double) totals[2] * data.n * op.elementsPerN;
+            return new Result(totals[0] / elements, totals[1] / elements);
+        }
+
+        /**
+         * Раунд для операцій зі спільним станом: виклики групуються в пакети,
+         * розмір пакета подвоюється, доки пакет не триватиме щонайменше ROUND_NANOS.
+         */
+        private static long[] runBatched(Operation op, Impl impl, Data data) {
+            Object state = op.prepare(impl, data);
+            for (long reps = 1; ; reps <<= 1) {
+                long a0 = allocatedBytes();
+                long t0 = System.nanoTime();
+                long acc = 0;
+                for (long i = 0; i < reps; i++) {
+                    acc += op.run(impl, data, state);
+                }
+                long t1 = System.nanoTime();
+                long a1 = allocatedBytes();
+                sink += acc;
+                if (t1 - t0 >= ROUND_NANOS) {
+                    return new long[]{t1 - t0, a1 - a0, reps};
+                }
+            }
+        }
+
+        /**
+         * Раунд для операцій, що руйнують стан (remove): підготовка кожного виклику не вимірюється.
+         */
+        private static long[] runConsuming(Operation op, Impl impl, Data data) {
+            long nanos = 0;
+            long bytes = 0;
+            long calls = 0;
+            while (nanos < ROUND_NANOS) {
+                Object state = op.prepare(impl, data);
+                long a0 = allocatedBytes();
+                long t0 = System.nanoTime();
+                sink += op.run(impl, data, state);
+                long t1 = System.nanoTime();
+                long a1 = allocatedBytes();
+                nanos += t1 - t0;
+                bytes += a1 - a0;
+                calls++;
+            }
+            return new long[]{nanos, bytes, calls};
+        }
+
+        private static long allocatedBytes() {
+            return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
     }
 }
 
@@ -60,7 +455,9 @@ public class Main {
 
 /**
  * Типізована колекція, що реалізує інтерфейс Set.
- * Внутрішня структура: Двозв’язний список (Doubly Linked List).
+ * Внутрішня структура: Двозв’язний список (Doubly Linked List),
+ * поруч із яким тримається хеш-індекс з відкритою адресацією (як у LinkedHashSet).
+ * Список зберігає порядок вставки, а індекс дає очікуваний O(1) для contains/add/remove.
  * * @param <E> Тип елементів у колекції.
  */
 class MySet<E> extends AbstractSet<E> implements Set<E> {
@@ -68,19 +465,32 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
     // Вузли двозв'язного списку
     private static class Node<E> {
         E item;
+        final int hash; // Хеш елемента (зберігаємо, щоб не рахувати повторно)
         Node<E> next;
         Node<E> prev;
 
-        Node(Node<E> prev, E element, Node<E> next) {
+        Node(Node<E> prev, E element, int hash, Node<E> next) {
             this.item = element;
+            this.hash = hash;
             this.next = next;
             this.prev = prev;
         }
     }
 
+    private static final int INITIAL_CAPACITY = 16; // Початковий розмір індексу (степінь двійки)
+
     private Node<E> head; // Початок списку
     private Node<E> tail; // Кінець списку
     private int size = 0; // Кількість елементів
+    private int modCount = 0; // Лічильник структурних змін (для fail-fast ітераторів)
+
+    // Мінімальний розмір частини, яку ще має сенс ділити для паралельних стрімів
+    private static final int MIN_SPLIT_SIZE = 1 << 10;
+
+    // Хеш-індекс: відкрита адресація з лінійним пробуванням.
+    // Заповненість тримаємо не більше 50%, щоб ланцюжки пробування були короткими.
+    private Node<E>[] table;
+    private int shift; // 32 - log2(table.length), для мультиплікативного хешування
 
     // --------------------------------------------------
     // 1. КОНСТРУКТОРИ 
@@ -90,6 +500,7 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
      * 1. Порожній конструктор.
      */
     public MySet() {
+        allocateTable(INITIAL_CAPACITY);
     }
 
     /**
@@ -97,6 +508,7 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
      * @param element Елемент для додавання.
      */
     public MySet(E element) {
+        this();
         add(element);
     }
 
@@ -105,6 +517,7 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
      * @param collection Колекція елементів.
      */
     public MySet(Collection<? extends E> collection) {
+        allocateTable(tableSizeFor(collection.size()));
         this.addAll(collection);
     }
 
@@ -124,7 +537,7 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
 
     @Override
     public boolean contains(Object o) {
-        return indexOf(o) != -1;
+        return findNode(o) != null;
     }
 
     /**
@@ -135,10 +548,11 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
     @Override
     public boolean add(E e) {
         // У Set не може бути дублікатів
-        if (contains(e)) {
+        int hash = hash(e);
+        if (findNode(e, hash) != null) {
             return false;
         }
-        linkLast(e);
+        linkLast(e, hash);
         return true;
     }
 
@@ -147,14 +561,13 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
      */
     @Override
     public boolean remove(Object o) {
-        // Знаходимо вузол
-        for (Node<E> x = head; x != null; x = x.next) {
-            if (o == null ? x.item == null : o.equals(x.item)) {
-                unlink(x);
-                return true;
-            }
+        // Знаходимо вузол через індекс
+        Node<E> x = findNode(o);
+        if (x == null) {
+            return false;
         }
-        return false;
+        unlink(x);
+        return true;
     }
 
     @Override
@@ -167,8 +580,92 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
             x.prev = null;
             x = next;
         }
+        Arrays.fill(table, null);
         head = tail = null;
         size = 0;
+        modCount++;
+    }
+
+    // --------------------------------------------------
+    // МАСОВІ ОПЕРАЦІЇ (без повторного сканування списку)
+    // --------------------------------------------------
+
+    /**
+     * Додає всі елементи колекції за один прохід.
+     * Індекс розширюється один раз наперед, нові вузли дописуються в кінець списку.
+     * @return true, якщо колекція змінилась.
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        ensureCapacity(size + c.size());
+        boolean modified = false;
+        for (E e : c) {
+            int hash = hash(e);
+            if (findNode(e, hash) == null) {
+                linkLast(e, hash);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Видаляє всі елементи, що містяться у колекції c.
+     * Якщо c менша за цей Set — видаляємо через власний індекс,
+     * інакше один раз проходимо список і перевіряємо елементи через індекс c.
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        boolean modified = false;
+        if (c.size() < size) {
+            for (Object o : c) {
+                modified |= remove(o);
+            }
+            return modified;
+        }
+        Collection<?> lookup = asLookup(c);
+        for (Node<E> x = head; x != null; ) {
+            Node<E> next = x.next;
+            if (lookup.contains(x.item)) {
+                unlink(x);
+                modified = true;
+            }
+            x = next;
+        }
+        return modified;
+    }
+
+    /**
+     * Залишає лише елементи, що містяться у колекції c (один прохід по списку).
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        Collection<?> lookup = asLookup(c);
+        boolean modified = false;
+        for (Node<E> x = head; x != null; ) {
+            Node<E> next = x.next;
+            if (!lookup.contains(x.item)) {
+                unlink(x);
+                modified = true;
+            }
+            x = next;
+        }
+        return modified;
+    }
+
+    /**
+     * Перевіряє, чи містяться всі елементи c, звертаючись лише до індексу.
+     */
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object o : c) {
+            if (findNode(o) == null) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -177,6 +674,7 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
             private Node<E> lastReturned = null;
             private Node<E> nextNode = head;
             private int nextIndex = 0;
+            private int expectedModCount = modCount;
 
             @Override
             public boolean hasNext() {
@@ -185,6 +683,7 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
 
             @Override
             public E next() {
+                checkForComodification();
                 if (!hasNext()) throw new NoSuchElementException();
                 lastReturned = nextNode;
                 nextNode = nextNode.next;
@@ -195,6 +694,7 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
             @Override
             public void remove() {
                 if (lastReturned == null) throw new IllegalStateException();
+                checkForComodification();
                 Node<E> lastNext = lastReturned.next;
                 unlink(lastReturned);
                 if (nextNode == lastReturned)
@@ -202,32 +702,139 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
                 else
                     nextIndex--;
                 lastReturned = null;
+                expectedModCount = modCount;
+            }
+
+            // Колекцію змінили в обхід ітератора — далі обходити небезпечно
+            private void checkForComodification() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
             }
         };
     }
 
+    /**
+     * Spliterator для (паралельних) стрімів: ділить список навпіл за кількістю елементів,
+     * тому parallelStream() отримує збалансовані частини замість "хвоста" стандартної реалізації.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new NodeSpliterator();
+    }
+
+    /**
+     * Пізнє зв'язування: початок і розмір фіксуються під час першого використання,
+     * а не в момент створення (як у стандартних колекціях).
+     */
+    private final class NodeSpliterator implements Spliterator<E> {
+        private Node<E> current;     // Наступний вузол для обходу
+        private int remaining = -1;  // Скільки вузлів залишилось (-1 — ще не прив'язаний)
+        private int expectedModCount;
+
+        NodeSpliterator() {
+        }
+
+        private NodeSpliterator(Node<E> current, int remaining, int expectedModCount) {
+            this.current = current;
+            this.remaining = remaining;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int bind() {
+            if (remaining < 0) {
+                current = head;
+                remaining = size;
+                expectedModCount = modCount;
+            }
+            return remaining;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int n = bind();
+            if (n < MIN_SPLIT_SIZE * 2) {
+                return null;
+            }
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            // Ліва половина віддається новому spliterator-у, права лишається цьому
+            int half = n >>> 1;
+            Node<E> mid = current;
+            for (int i = 0; i < half; i++) {
+                mid = mid.next;
+            }
+            NodeSpliterator prefix = new NodeSpliterator(current, half, expectedModCount);
+            current = mid;
+            remaining = n - half;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (bind() <= 0) {
+                return false;
+            }
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            E item = current.item;
+            current = current.next;
+            remaining--;
+            action.accept(item);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            int n = bind();
+            Node<E> x = current;
+            for (; n > 0 && x != null; n--) {
+                action.accept(x.item);
+                x = x.next;
+            }
+            current = x;
+            remaining = 0;
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() {
+            return bind();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.DISTINCT | Spliterator.ORDERED;
+        }
+    }
+
     // --------------------------------------------------
     // ДОПОМІЖНІ МЕТОДИ 
     // --------------------------------------------------
 
     /**
-     * Додає елемент в кінець списку (як у LinkedList).
+     * Додає елемент в кінець списку (як у LinkedList) та реєструє вузол в індексі.
      */
-    private void linkLast(E e) {
+    private void linkLast(E e, int hash) {
         final Node<E> l = tail;
-        final Node<E> newNode = new Node<>(l, e, null);
+        final Node<E> newNode = new Node<>(l, e, hash, null);
         tail = newNode;
         if (l == null)
             head = newNode;
         else
             l.next = newNode;
         size++;
+        modCount++;
+        insertIntoTable(newNode);
+        if (size > (table.length >>> 1)) {
+            resize(table.length << 1);
+        }
     }
 
     /**
-     * Видаляє вузол зі списку.
+     * Видаляє вузол зі списку та з індексу.
      */
     private E unlink(Node<E> x) {
+        removeFromTable(x);
+
         final E element = x.item;
         final Node<E> next = x.next;
         final Node<E> prev = x.prev;
@@ -248,71 +855,2121 @@ class MySet<E> extends AbstractSet<E> implements Set<E> {
 
         x.item = null;
         size--;
+        modCount++;
         return element;
     }
 
     /**
-     * Шукає індекс об'єкта (потрібен для contains).
+     * Шукає вузол з рівним елементом (потрібен для contains/remove).
      */
-    private int indexOf(Object o) {
-        int index = 0;
-        if (o == null) {
-            for (Node<E> x = head; x != null; x = x.next) {
-                if (x.item == null) return index;
-                index++;
+    private Node<E> findNode(Object o) {
+        return findNode(o, hash(o));
+    }
+
+    private Node<E> findNode(Object o, int hash) {
+        final Node<E>[] tab = table;
+        final int mask = tab.length - 1;
+        for (int i = indexFor(hash); ; i = (i + 1) & mask) {
+            Node<E> x = tab[i];
+            if (x == null) {
+                return null;
             }
-        } else {
-            for (Node<E> x = head; x != null; x = x.next) {
-                if (o.equals(x.item)) return index;
-                index++;
+            if (x.hash == hash && (o == null ? x.item == null : o.equals(x.item))) {
+                return x;
+            }
+        }
+    }
+
+    // --------------------------------------------------
+    // ХЕШ-ІНДЕКС (відкрита адресація)
+    // --------------------------------------------------
+
+    private static int hash(Object o) {
+        return o == null ? 0 : o.hashCode();
+    }
+
+    /**
+     * Мультиплікативне (фібоначчієве) хешування: старші біти добутку
+     * залежать від усіх бітів хешу, тому погані hashCode() не збиваються в кластери.
+     */
+    private int indexFor(int hash) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Мінімальний розмір таблиці (степінь двійки), що вміщує n елементів із заповненістю до 50%.
+     */
+    private static int tableSizeFor(int n) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < (1 << 30) && (capacity >>> 1) < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Заздалегідь розширює індекс, щоб вмістити n елементів без проміжних перебудов.
+     */
+    private void ensureCapacity(int n) {
+        int capacity = tableSizeFor(n);
+        if (capacity > table.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * Повертає колекцію зі швидким contains(): Set використовуємо як є,
+     * для решти (наприклад, List) один раз будуємо тимчасовий хеш-індекс.
+     */
+    private static Collection<?> asLookup(Collection<?> c) {
+        return (c instanceof Set) ? c : new HashSet<>(c);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void allocateTable(int capacity) {
+        table = (Node<E>[]) new Node[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void insertIntoTable(Node<E> node) {
+        final Node<E>[] tab = table;
+        final int mask = tab.length - 1;
+        int i = indexFor(node.hash);
+        while (tab[i] != null) {
+            i = (i + 1) & mask;
+        }
+        tab[i] = node;
+    }
+
+    /**
+     * Видаляє вузол з індексу зсувом назад (backward-shift deletion),
+     * тому таблиця не накопичує "надгробків" після видалень.
+     */
+    private void removeFromTable(Node<E> node) {
+        final Node<E>[] tab = table;
+        final int mask = tab.length - 1;
+        int i = indexFor(node.hash);
+        while (tab[i] != node) {
+            i = (i + 1) & mask;
+        }
+        // Зсуваємо назад елементи кластера, які можуть зайняти звільнену комірку
+        for (int j = (i + 1) & mask; tab[j] != null; j = (j + 1) & mask) {
+            int home = indexFor(tab[j].hash);
+            boolean staysInPlace = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!staysInPlace) {
+                tab[i] = tab[j];
+                i = j;
             }
         }
-        return -1;
+        tab[i] = null;
+    }
+
+    /**
+     * Перебудовує індекс більшого розміру, проходячи список у порядку вставки.
+     */
+    private void resize(int newCapacity) {
+        allocateTable(newCapacity);
+        for (Node<E> x = head; x != null; x = x.next) {
+            insertIntoTable(x);
+        }
     }
 }
 
 // ==========================================
-// ІЄРАРХІЯ З ЛАБОРАТОРНОЇ №5 
+// КОЛЕКЦІЯ З ПУЛОМ ВУЗЛІВ (SET на паралельних масивах)
 // ==========================================
 
-abstract class Coffee {
-    private String name;
-    private double price;
-    private double weight;
-    private double volume;
-    private int quality;
+/**
+ * Варіант MySet, у якому вузли двозв'язного списку не є окремими об'єктами:
+ * елементи лежать у масиві items, а зв'язки — у примітивних масивах next/prev (індекси комірок).
+ * Звільнені комірки потрапляють у free-list і перевикористовуються, тому після "прогріву"
+ * add/remove/clear не виділяють пам'яті взагалі (корисно, коли Set постійно перебудовується).
+ * Порядок обходу — порядок вставки; хеш-індекс так само з відкритою адресацією.
+ * * @param <E> Тип елементів у колекції.
+ */
+class PooledMySet<E> extends AbstractSet<E> implements Set<E> {
 
-    public Coffee(String name, double price, double weight, double volume, int quality) {
-        this.name = name;
-        this.price = price;
-        this.weight = weight;
-        this.volume = volume;
-        this.quality = quality;
+    private static final int NIL = -1;             // "Нульове посилання" для індексів
+    private static final int DEFAULT_CAPACITY = 16; // Степінь двійки
+
+    // Паралельні масиви замість об'єктів Node
+    private Object[] items;
+    private int[] next;
+    private int[] prev;
+    private int[] hashes;
+
+    private int head = NIL;     // Початок списку
+    private int tail = NIL;     // Кінець списку
+    private int freeHead = NIL; // Початок списку вільних комірок (зв'язаний через next[])
+    private int used = 0;       // Скільки комірок хоч раз видавалось
+    private int size = 0;       // Кількість елементів
+    private int modCount = 0;   // Лічильник структурних змін (для fail-fast ітератора)
+
+    // Хеш-індекс: номер комірки + 1 (0 означає порожню позицію)
+    private int[] index;
+    private int shift;
+
+    // --------------------------------------------------
+    // 1. КОНСТРУКТОРИ 
+    // --------------------------------------------------
+
+    /**
+     * 1. Порожній конструктор.
+     */
+    public PooledMySet() {
+        this(DEFAULT_CAPACITY);
     }
 
-    // Getters
-    public String getName() { return name; }
-    
-    @Override
-    public String toString() {
-        return String.format("%-20s | Ціна: %.1f | Якість: %d", name, price, quality);
+    /**
+     * 2. Конструктор із заданою місткістю пулу.
+     * Якщо кількість елементів її не перевищує, масиви більше не перевиділяються.
+     * @param capacity Очікувана максимальна кількість елементів.
+     */
+    public PooledMySet(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Місткість не може бути від'ємною: " + capacity);
+        }
+        int slots = Math.max(capacity, 1);
+        items = new Object[slots];
+        next = new int[slots];
+        prev = new int[slots];
+        hashes = new int[slots];
+        allocateIndex(indexSizeFor(slots));
     }
-}
 
-class CoffeeBeans extends Coffee {
-    public CoffeeBeans(String name, double price, double weight, double volume, int quality) {
-        super(name + " (Зерно)", price, weight, volume, quality);
+    /**
+     * 3. Конструктор, в який передається стандартна колекція.
+     * @param collection Колекція елементів.
+     */
+    public PooledMySet(Collection<? extends E> collection) {
+        this(collection.size());
+        this.addAll(collection);
     }
-}
 
-class GroundCoffee extends Coffee {
-    public GroundCoffee(String name, double price, double weight, double volume, int quality) {
-        super(name + " (Мелена)", price, weight, volume, quality);
+    // --------------------------------------------------
+    // МЕТОДИ ІНТЕРФЕЙСУ SET / COLLECTION
+    // --------------------------------------------------
+
+    @Override
+    public int size() {
+        return size;
     }
-}
 
-class InstantCoffee extends Coffee {
-    public InstantCoffee(String name, double price, double weight, double volume, int quality, String packaging) {
-        super(name + " (Розчинна, " + packaging + ")", price, weight, volume, quality);
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return findSlot(o, hash(o)) != NIL;
     }
-}
\ No newline at end of file
+
+    /**
+     * Додає елемент у кінець списку, якщо такого ще немає.
+     * Комірка береться з free-list, тому нових об'єктів не створюється.
+     * @param e елемент для додавання
+     * @return true, якщо елемент додано.
+     */
+    @Override
+    public boolean add(E e) {
+        int hash = hash(e);
+        if (findSlot(e, hash) != NIL) {
+            return false;
+        }
+        int slot = allocateSlot();
+        items[slot] = e;
+        hashes[slot] = hash;
+        linkLast(slot);
+        size++;
+        modCount++;
+        insertIntoIndex(slot);
+        if (size > (index.length >>> 1)) {
+            resizeIndex(index.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Видаляє об'єкт із колекції та повертає його комірку у free-list.
+     */
+    @Override
+    public boolean remove(Object o) {
+        int slot = findSlot(o, hash(o));
+        if (slot == NIL) {
+            return false;
+        }
+        unlink(slot);
+        return true;
+    }
+
+    /**
+     * Очищує колекцію, зберігаючи масиви для повторного використання.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(items, 0, used, null); // Посилання на елементи відпускаємо для GC
+        Arrays.fill(index, 0);
+        head = tail = freeHead = NIL;
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Обхід без створення ітератора — прямо по масивах.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            action.accept((E) items[slot]);
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int lastReturned = NIL;
+            private int nextSlot = head;
+            private int nextIndex = 0;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return nextIndex < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                lastReturned = nextSlot;
+                nextSlot = next[nextSlot];
+                nextIndex++;
+                return (E) items[lastReturned];
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == NIL) throw new IllegalStateException();
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                unlink(lastReturned);
+                nextIndex--;
+                lastReturned = NIL;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    // --------------------------------------------------
+    // ДОПОМІЖНІ МЕТОДИ 
+    // --------------------------------------------------
+
+    /**
+     * Видає вільну комірку: спершу з free-list, потім нову з кінця масивів.
+     */
+    private int allocateSlot() {
+        if (freeHead != NIL) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (used == items.length) {
+            int newLength = items.length << 1;
+            items = Arrays.copyOf(items, newLength);
+            next = Arrays.copyOf(next, newLength);
+            prev = Arrays.copyOf(prev, newLength);
+            hashes = Arrays.copyOf(hashes, newLength);
+        }
+        return used++;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL)
+            head = slot;
+        else
+            next[tail] = slot;
+        tail = slot;
+    }
+
+    /**
+     * Видаляє комірку зі списку та з індексу і повертає її у free-list.
+     */
+    private void unlink(int slot) {
+        removeFromIndex(slot);
+
+        final int n = next[slot];
+        final int p = prev[slot];
+        if (p == NIL)
+            head = n;
+        else
+            next[p] = n;
+        if (n == NIL)
+            tail = p;
+        else
+            prev[n] = p;
+
+        items[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+        modCount++;
+    }
+
+    private int findSlot(Object o, int hash) {
+        final int[] idx = index;
+        final int mask = idx.length - 1;
+        for (int i = indexFor(hash); ; i = (i + 1) & mask) {
+            int slot = idx[i] - 1;
+            if (slot == NIL) {
+                return NIL;
+            }
+            if (hashes[slot] == hash && Objects.equals(o, items[slot])) {
+                return slot;
+            }
+        }
+    }
+
+    // --------------------------------------------------
+    // ХЕШ-ІНДЕКС (відкрита адресація)
+    // --------------------------------------------------
+
+    private static int hash(Object o) {
+        return o == null ? 0 : o.hashCode();
+    }
+
+    private int indexFor(int hash) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+
+    private static int indexSizeFor(int n) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < (1 << 30) && (capacity >>> 1) < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocateIndex(int capacity) {
+        index = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void insertIntoIndex(int slot) {
+        final int[] idx = index;
+        final int mask = idx.length - 1;
+        int i = indexFor(hashes[slot]);
+        while (idx[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        idx[i] = slot + 1;
+    }
+
+    /**
+     * Видалення зсувом назад (backward-shift), як і в MySet.
+     */
+    private void removeFromIndex(int slot) {
+        final int[] idx = index;
+        final int mask = idx.length - 1;
+        int i = indexFor(hashes[slot]);
+        while (idx[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        for (int j = (i + 1) & mask; idx[j] != 0; j = (j + 1) & mask) {
+            int home = indexFor(hashes[idx[j] - 1]);
+            boolean staysInPlace = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!staysInPlace) {
+                idx[i] = idx[j];
+                i = j;
+            }
+        }
+        idx[i] = 0;
+    }
+
+    private void resizeIndex(int newCapacity) {
+        allocateIndex(newCapacity);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            insertIntoIndex(slot);
+        }
+    }
+}
+
+// ==========================================
+// ПОТОКОБЕЗПЕЧНА КОЛЕКЦІЯ (SET із розділеними замками)
+// ==========================================
+
+/**
+ * Потокобезпечний "родич" MySet для багатопотокового завантаження.
+ * Таблиця розбита на сегменти (lock striping): кожен сегмент має власний замок
+ * і власну хеш-таблицю з ланцюжками, тому потоки, що пишуть у різні сегменти,
+ * не чекають один на одного. contains() виконується взагалі без блокувань.
+ * Ітератор слабко узгоджений: він ніколи не кидає ConcurrentModificationException,
+ * а зміни, зроблені під час обходу, може як побачити, так і не побачити.
+ * На відміну від MySet, порядок обходу не збігається з порядком вставки.
+ * * @param <E> Тип елементів у колекції.
+ */
+class ConcurrentMySet<E> extends AbstractSet<E> implements Set<E> {
+
+    private static final int MAX_SEGMENTS = 1 << 16;
+    private static final int SEGMENT_INITIAL_CAPACITY = 16; // Степінь двійки
+
+    // Вузол ланцюжка. next — volatile, щоб читачі без замка бачили коректний список.
+    private static final class Node<E> {
+        final E item;
+        final int hash;
+        volatile Node<E> next;
+
+        Node(E item, int hash, Node<E> next) {
+            this.item = item;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Сегмент: окремий замок + хеш-таблиця з ланцюжками.
+     * Запис лише під замком, читання — без нього.
+     */
+    private static final class Segment<E> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        volatile AtomicReferenceArray<Node<E>> table =
+                new AtomicReferenceArray<>(SEGMENT_INITIAL_CAPACITY);
+        volatile int count;
+
+        boolean contains(Object o, int hash) {
+            AtomicReferenceArray<Node<E>> tab = table;
+            for (Node<E> e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+                if (e.hash == hash && Objects.equals(o, e.item)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean add(E item, int hash) {
+            lock();
+            try {
+                if (contains(item, hash)) {
+                    return false;
+                }
+                AtomicReferenceArray<Node<E>> tab = table;
+                if (count + 1 > (tab.length() >>> 1) + (tab.length() >>> 2)) {
+                    tab = rehash(tab);
+                }
+                int i = hash & (tab.length() - 1);
+                tab.set(i, new Node<>(item, hash, tab.get(i)));
+                count++;
+                return true;
+            } finally {
+                unlock();
+            }
+        }
+
+        boolean remove(Object o, int hash) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<E>> tab = table;
+                int i = hash & (tab.length() - 1);
+                Node<E> pred = null;
+                for (Node<E> e = tab.get(i); e != null; pred = e, e = e.next) {
+                    if (e.hash == hash && Objects.equals(o, e.item)) {
+                        // Читач, що зараз стоїть на e, все одно дійде до кінця ланцюжка
+                        if (pred == null) {
+                            tab.set(i, e.next);
+                        } else {
+                            pred.next = e.next;
+                        }
+                        count--;
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                table = new AtomicReferenceArray<>(SEGMENT_INITIAL_CAPACITY);
+                count = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Подвоює таблицю. Вузли копіюються, а не перелінковуються,
+         * тому читачі, які ще обходять стару таблицю, бачать її незмінною.
+         */
+        private AtomicReferenceArray<Node<E>> rehash(AtomicReferenceArray<Node<E>> oldTab) {
+            AtomicReferenceArray<Node<E>> newTab = new AtomicReferenceArray<>(oldTab.length() << 1);
+            int mask = newTab.length() - 1;
+            for (int i = 0; i < oldTab.length(); i++) {
+                for (Node<E> e = oldTab.get(i); e != null; e = e.next) {
+                    int j = e.hash & mask;
+                    newTab.set(j, new Node<>(e.item, e.hash, newTab.get(j)));
+                }
+            }
+            table = newTab;
+            return newTab;
+        }
+    }
+
+    private final Segment<E>[] segments;
+    private final int segmentShift; // Старші біти хешу обирають сегмент, молодші — кошик
+
+    // --------------------------------------------------
+    // 1. КОНСТРУКТОРИ 
+    // --------------------------------------------------
+
+    /**
+     * 1. Порожній конструктор. Кількість сегментів підбирається за кількістю ядер.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentMySet() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int n = 1;
+        while (n < cores * 4 && n < MAX_SEGMENTS) {
+            n <<= 1;
+        }
+        segments = (Segment<E>[]) new Segment[n];
+        for (int i = 0; i < n; i++) {
+            segments[i] = new Segment<>();
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    /**
+     * 2. Конструктор, в який передається 1 об’єкт.
+     * @param element Елемент для додавання.
+     */
+    public ConcurrentMySet(E element) {
+        this();
+        add(element);
+    }
+
+    /**
+     * 3. Конструктор, в який передається стандартна колекція.
+     * @param collection Колекція елементів.
+     */
+    public ConcurrentMySet(Collection<? extends E> collection) {
+        this();
+        this.addAll(collection);
+    }
+
+    // --------------------------------------------------
+    // МЕТОДИ ІНТЕРФЕЙСУ SET / COLLECTION
+    // --------------------------------------------------
+
+    /**
+     * Повертає кількість елементів. Під час паралельних змін значення є наближеним.
+     */
+    @Override
+    public int size() {
+        long sum = 0;
+        for (Segment<E> segment : segments) {
+            sum += segment.count;
+        }
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment<E> segment : segments) {
+            if (segment.count != 0) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        int hash = hash(o);
+        return segmentFor(hash).contains(o, hash);
+    }
+
+    @Override
+    public boolean add(E e) {
+        int hash = hash(e);
+        return segmentFor(hash).add(e, hash);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int hash = hash(o);
+        return segmentFor(hash).remove(o, hash);
+    }
+
+    /**
+     * Очищує сегменти по черзі, тому не є атомарною операцією над усією колекцією.
+     */
+    @Override
+    public void clear() {
+        for (Segment<E> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Слабко узгоджений ітератор: обходить сегменти по черзі, читаючи таблиці без замків.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int segmentIndex = 0;
+            private AtomicReferenceArray<Node<E>> currentTable = null;
+            private int bucketIndex = 0;
+            private Node<E> nextNode = null;
+            private Node<E> lastReturned = null;
+
+            {
+                advance();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextNode != null;
+            }
+
+            @Override
+            public E next() {
+                if (nextNode == null) throw new NoSuchElementException();
+                lastReturned = nextNode;
+                nextNode = nextNode.next;
+                if (nextNode == null) {
+                    advance();
+                }
+                return lastReturned.item;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) throw new IllegalStateException();
+                ConcurrentMySet.this.remove(lastReturned.item);
+                lastReturned = null;
+            }
+
+            // Переходить до наступного непорожнього кошика (за потреби — до наступного сегмента)
+            private void advance() {
+                while (true) {
+                    if (currentTable != null) {
+                        while (bucketIndex < currentTable.length()) {
+                            Node<E> e = currentTable.get(bucketIndex++);
+                            if (e != null) {
+                                nextNode = e;
+                                return;
+                            }
+                        }
+                    }
+                    if (segmentIndex >= segments.length) {
+                        nextNode = null;
+                        return;
+                    }
+                    currentTable = segments[segmentIndex++].table;
+                    bucketIndex = 0;
+                }
+            }
+        };
+    }
+
+    // --------------------------------------------------
+    // ДОПОМІЖНІ МЕТОДИ 
+    // --------------------------------------------------
+
+    /**
+     * Перемішує біти хешу, щоб і сегмент, і кошик залежали від усього hashCode().
+     */
+    private static int hash(Object o) {
+        int h = (o == null ? 0 : o.hashCode()) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private Segment<E> segmentFor(int hash) {
+        return segmentShift == 32 ? segments[0] : segments[hash >>> segmentShift];
+    }
+}
+
+// ==========================================
+// ВПОРЯДКОВАНА КОЛЕКЦІЯ (NavigableSet на списку з пропусками)
+// ==========================================
+
+/**
+ * Впорядкований варіант MySet, що реалізує NavigableSet.
+ * Внутрішня структура: список з пропусками (skip list) — двозв'язний список рівня 0
+ * плюс кілька "експрес"-рівнів, тому first/last/ceiling/floor/add/remove виконуються за O(log n).
+ * Порядок задає Comparator (або природний порядок, якщо його не передано).
+ * Як і в TreeSet, компаратор визначає і рівність: елементи, для яких compare() == 0,
+ * вважаються дублікатами, тому він має розрізняти всі різні товари.
+ * Представлення subSet/headSet/tailSet/descendingSet — "живі": зміни в них
+ * одразу видно в основній колекції і навпаки.
+ * * @param <E> Тип елементів у колекції.
+ */
+class SortedMySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+
+    private static final int MAX_LEVEL = 16; // Імовірність рівня 1/4, вистачає на ~4^16 елементів
+
+    // Вузол: посилання вперед на кожному рівні та назад на рівні 0
+    private static final class Node<E> {
+        final E item;
+        final Node<E>[] next;
+        Node<E> prev;
+
+        Node(E item, int level) {
+            this.item = item;
+            this.next = newArray(level);
+        }
+
+        // Єдине місце створення масиву вузлів (generic-масив неможливо створити напряму)
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        static <E> Node<E>[] newArray(int length) {
+            return (Node<E>[]) new Node[length];
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final Node<E> head = new Node<>(null, MAX_LEVEL); // Сторожовий вузол
+    private Node<E> tail;          // Останній вузол (null, якщо колекція порожня)
+    private int level = 1;         // Кількість рівнів, що зараз використовуються
+    private int size = 0;          // Кількість елементів
+    private int modCount = 0;      // Лічильник структурних змін (для fail-fast ітераторів)
+    private int randomState = (int) System.nanoTime() | 1; // Стан генератора xorshift для рівнів
+
+    // --------------------------------------------------
+    // 1. КОНСТРУКТОРИ 
+    // --------------------------------------------------
+
+    /**
+     * 1. Порожній конструктор (природний порядок елементів).
+     */
+    public SortedMySet() {
+        this((Comparator<? super E>) null);
+    }
+
+    /**
+     * 2. Конструктор із компаратором.
+     * @param comparator Порядок елементів (null — природний порядок).
+     */
+    public SortedMySet(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * 3. Конструктор із компаратором та стандартною колекцією.
+     * @param comparator Порядок елементів (null — природний порядок).
+     * @param collection Колекція елементів.
+     */
+    public SortedMySet(Comparator<? super E> comparator, Collection<? extends E> collection) {
+        this(comparator);
+        this.addAll(collection);
+    }
+
+    // --------------------------------------------------
+    // МЕТОДИ ІНТЕРФЕЙСУ SET / COLLECTION
+    // --------------------------------------------------
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        Node<E> x = findHigher((E) o, true);
+        return x != null && compare((E) o, x.item) == 0;
+    }
+
+    /**
+     * Вставляє елемент на його місце в порядку, якщо рівного ще немає.
+     * @param e елемент для додавання
+     * @return true, якщо елемент додано.
+     */
+    @Override
+    public boolean add(E e) {
+        Node<E>[] update = Node.newArray(MAX_LEVEL);
+        Node<E> x = findPredecessors(e, update);
+        Node<E> candidate = x.next[0];
+        if (candidate != null && compare(e, candidate.item) == 0) {
+            return false;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                update[i] = head;
+            }
+            level = nodeLevel;
+        }
+        Node<E> node = new Node<>(e, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+        }
+        node.prev = (update[0] == head) ? null : update[0];
+        if (node.next[0] == null)
+            tail = node;
+        else
+            node.next[0].prev = node;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Видаляє об'єкт із колекції за O(log n).
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        Node<E>[] update = Node.newArray(MAX_LEVEL);
+        Node<E> node = findPredecessors((E) o, update).next[0];
+        if (node == null || compare((E) o, node.item) != 0) {
+            return false;
+        }
+        for (int i = 0; i < node.next.length; i++) {
+            update[i].next[i] = node.next[i];
+        }
+        if (node.next[0] == null)
+            tail = node.prev;
+        else
+            node.next[0].prev = node.prev;
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(head.next, null);
+        tail = null;
+        level = 1;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new NodeIterator(head.next[0], false, null);
+    }
+
+    // --------------------------------------------------
+    // МЕТОДИ ІНТЕРФЕЙСУ NAVIGABLESET / SORTEDSET
+    // --------------------------------------------------
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public E first() {
+        return itemOrThrow(head.next[0]);
+    }
+
+    @Override
+    public E last() {
+        return itemOrThrow(tail);
+    }
+
+    @Override
+    public E lower(E e) {
+        return itemOrNull(findLower(e, false));
+    }
+
+    @Override
+    public E floor(E e) {
+        return itemOrNull(findLower(e, true));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return itemOrNull(findHigher(e, true));
+    }
+
+    @Override
+    public E higher(E e) {
+        return itemOrNull(findHigher(e, false));
+    }
+
+    @Override
+    public E pollFirst() {
+        return pollNode(head.next[0]);
+    }
+
+    @Override
+    public E pollLast() {
+        return pollNode(tail);
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return new SubSet(true, null, false, true, null, false, true);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new NodeIterator(tail, true, null);
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("Початок діапазону більший за кінець");
+        }
+        return new SubSet(false, fromElement, fromInclusive, false, toElement, toInclusive, false);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        compare(toElement, toElement); // Перевірка типу/null, як у TreeSet
+        return new SubSet(true, null, false, false, toElement, inclusive, false);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        compare(fromElement, fromElement);
+        return new SubSet(false, fromElement, inclusive, true, null, false, false);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    // --------------------------------------------------
+    // ДОПОМІЖНІ МЕТОДИ 
+    // --------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private int compare(E a, E b) {
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super E>) a).compareTo(b);
+    }
+
+    /**
+     * Спускається рівнями від найвищого і запам'ятовує на кожному рівні
+     * останній вузол, менший за key. Повертає такий вузол рівня 0 (або head).
+     */
+    private Node<E> findPredecessors(E key, Node<E>[] update) {
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].item, key) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        return x;
+    }
+
+    /**
+     * Найбільший вузол, менший за key (або рівний йому, якщо inclusive).
+     */
+    private Node<E> findLower(E key, boolean inclusive) {
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            Node<E> n;
+            while ((n = x.next[i]) != null) {
+                int c = compare(n.item, key);
+                if (c > 0 || (c == 0 && !inclusive)) break;
+                x = n;
+            }
+        }
+        return x == head ? null : x;
+    }
+
+    /**
+     * Найменший вузол, більший за key (або рівний йому, якщо inclusive).
+     */
+    private Node<E> findHigher(E key, boolean inclusive) {
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            Node<E> n;
+            while ((n = x.next[i]) != null) {
+                int c = compare(n.item, key);
+                if (c > 0 || (c == 0 && inclusive)) break;
+                x = n;
+            }
+        }
+        return x.next[0];
+    }
+
+    /**
+     * Випадковий рівень вузла: кожен наступний рівень з імовірністю 1/4 (xorshift, без синхронізації).
+     */
+    private int randomLevel() {
+        int r = randomState;
+        r ^= r << 13;
+        r ^= r >>> 17;
+        r ^= r << 5;
+        randomState = r;
+        return Math.min(1 + Integer.numberOfTrailingZeros(r) / 2, MAX_LEVEL);
+    }
+
+    private E pollNode(Node<E> node) {
+        if (node == null) {
+            return null;
+        }
+        E item = node.item;
+        remove(item);
+        return item;
+    }
+
+    private static <E> E itemOrNull(Node<E> node) {
+        return node == null ? null : node.item;
+    }
+
+    private static <E> E itemOrThrow(Node<E> node) {
+        if (node == null) throw new NoSuchElementException();
+        return node.item;
+    }
+
+    /**
+     * Ітератор по вузлах рівня 0 у прямому або зворотному напрямку.
+     * Якщо задано view, обхід зупиняється на межі діапазону представлення.
+     */
+    private final class NodeIterator implements Iterator<E> {
+        private Node<E> nextNode;
+        private Node<E> lastReturned = null;
+        private int expectedModCount = modCount;
+        private final boolean descending;
+        private final SubSet view;
+
+        NodeIterator(Node<E> start, boolean descending, SubSet view) {
+            this.nextNode = start;
+            this.descending = descending;
+            this.view = view;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextNode == null) return false;
+            if (view == null) return true;
+            return descending ? !view.tooLow(nextNode.item) : !view.tooHigh(nextNode.item);
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            lastReturned = nextNode;
+            nextNode = descending ? nextNode.prev : nextNode.next[0];
+            return lastReturned.item;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            SortedMySet.this.remove(lastReturned.item);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * Живе представлення діапазону основної колекції (subSet/headSet/tailSet/descendingSet).
+     * Межі задаються в порядку основної колекції; descending лише обертає напрямок.
+     * Навігаційні операції зводяться до пошуку в основному списку з перевіркою меж — O(log n).
+     */
+    private final class SubSet extends AbstractSet<E> implements NavigableSet<E> {
+        private final boolean fromStart;   // Немає нижньої межі
+        private final E lo;
+        private final boolean loInclusive;
+        private final boolean toEnd;       // Немає верхньої межі
+        private final E hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        SubSet(boolean fromStart, E lo, boolean loInclusive,
+               boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        // ---------- Межі діапазону ----------
+
+        boolean tooLow(E e) {
+            if (fromStart) return false;
+            int c = compare(e, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        boolean tooHigh(E e) {
+            if (toEnd) return false;
+            int c = compare(e, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        boolean inRange(E e) {
+            return !tooLow(e) && !tooHigh(e);
+        }
+
+        /**
+         * Нова межа вкладеного представлення не може виходити за межі цього.
+         */
+        private void checkBound(E bound, boolean inclusive) {
+            boolean outside;
+            if (!fromStart) {
+                int c = compare(bound, lo);
+                outside = c < 0 || (c == 0 && !loInclusive && inclusive);
+                if (outside) throw new IllegalArgumentException("Межа поза діапазоном представлення");
+            }
+            if (!toEnd) {
+                int c = compare(bound, hi);
+                outside = c > 0 || (c == 0 && !hiInclusive && inclusive);
+                if (outside) throw new IllegalArgumentException("Межа поза діапазоном представлення");
+            }
+        }
+
+        // ---------- Пошук у порядку основної колекції ----------
+
+        private Node<E> absLowest() {
+            Node<E> n = fromStart ? head.next[0] : findHigher(lo, loInclusive);
+            return (n == null || tooHigh(n.item)) ? null : n;
+        }
+
+        private Node<E> absHighest() {
+            Node<E> n = toEnd ? tail : findLower(hi, hiInclusive);
+            return (n == null || tooLow(n.item)) ? null : n;
+        }
+
+        private Node<E> absCeiling(E e, boolean inclusive) {
+            if (tooLow(e)) return absLowest();
+            Node<E> n = findHigher(e, inclusive);
+            return (n == null || tooHigh(n.item)) ? null : n;
+        }
+
+        private Node<E> absFloor(E e, boolean inclusive) {
+            if (tooHigh(e)) return absHighest();
+            Node<E> n = findLower(e, inclusive);
+            return (n == null || tooLow(n.item)) ? null : n;
+        }
+
+        // ---------- SET / COLLECTION ----------
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (Iterator<E> it = iterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return absLowest() == null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            return inRange((E) o) && SortedMySet.this.contains(o);
+        }
+
+        @Override
+        public boolean add(E e) {
+            if (!inRange(e)) throw new IllegalArgumentException("Елемент поза діапазоном представлення");
+            return SortedMySet.this.add(e);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            return inRange((E) o) && SortedMySet.this.remove(o);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return descending
+                    ? new NodeIterator(absHighest(), true, this)
+                    : new NodeIterator(absLowest(), false, this);
+        }
+
+        // ---------- NAVIGABLESET (з урахуванням напрямку) ----------
+
+        @Override
+        public Comparator<? super E> comparator() {
+            if (!descending) return comparator;
+            return comparator == null ? Collections.reverseOrder() : Collections.reverseOrder(comparator);
+        }
+
+        @Override
+        public E first() {
+            return itemOrThrow(descending ? absHighest() : absLowest());
+        }
+
+        @Override
+        public E last() {
+            return itemOrThrow(descending ? absLowest() : absHighest());
+        }
+
+        @Override
+        public E lower(E e) {
+            return itemOrNull(descending ? absCeiling(e, false) : absFloor(e, false));
+        }
+
+        @Override
+        public E floor(E e) {
+            return itemOrNull(descending ? absCeiling(e, true) : absFloor(e, true));
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return itemOrNull(descending ? absFloor(e, true) : absCeiling(e, true));
+        }
+
+        @Override
+        public E higher(E e) {
+            return itemOrNull(descending ? absFloor(e, false) : absCeiling(e, false));
+        }
+
+        @Override
+        public E pollFirst() {
+            return pollNode(descending ? absHighest() : absLowest());
+        }
+
+        @Override
+        public E pollLast() {
+            return pollNode(descending ? absLowest() : absHighest());
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new SubSet(fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            int c = compare(fromElement, toElement);
+            if (descending ? c < 0 : c > 0) {
+                throw new IllegalArgumentException("Початок діапазону більший за кінець");
+            }
+            checkBound(fromElement, fromInclusive);
+            checkBound(toElement, toInclusive);
+            return descending
+                    ? new SubSet(false, toElement, toInclusive, false, fromElement, fromInclusive, true)
+                    : new SubSet(false, fromElement, fromInclusive, false, toElement, toInclusive, false);
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            checkBound(toElement, inclusive);
+            return descending
+                    ? new SubSet(false, toElement, inclusive, toEnd, hi, hiInclusive, true)
+                    : new SubSet(fromStart, lo, loInclusive, false, toElement, inclusive, false);
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            checkBound(fromElement, inclusive);
+            return descending
+                    ? new SubSet(fromStart, lo, loInclusive, false, fromElement, inclusive, true)
+                    : new SubSet(false, fromElement, inclusive, toEnd, hi, hiInclusive, false);
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
+
+// ==========================================
+// ПРИМІТИВНІ КОЛЕКЦІЇ (без boxing)
+// ==========================================
+
+/**
+ * Множина примітивних значень int без упакування (boxing) у Integer.
+ * Значення лежать прямо в масиві int[] з відкритою адресацією (лінійне пробування),
+ * тому комірка таблиці займає лише 4 байти замість об'єкта Integer + вузла списку.
+ * Значення 0 використовується як позначка порожньої комірки, тому наявність нуля
+ * зберігається окремим прапорцем. Порядок обходу не визначений (як у HashSet).
+ */
+class IntMySet {
+
+    private static final int DEFAULT_CAPACITY = 16; // Степінь двійки
+
+    private int[] keys;         // Таблиця значень (0 — порожня комірка)
+    private boolean hasZero;    // Чи міститься в множині значення 0
+    private int size = 0;       // Кількість елементів (разом із нулем)
+    private int shift;          // 32 - log2(keys.length)
+
+    // --------------------------------------------------
+    // 1. КОНСТРУКТОРИ 
+    // --------------------------------------------------
+
+    /**
+     * 1. Порожній конструктор.
+     */
+    public IntMySet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 2. Конструктор із очікуваною кількістю елементів (щоб уникнути перебудов таблиці).
+     * @param expectedSize Очікувана кількість елементів.
+     */
+    public IntMySet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Розмір не може бути від'ємним: " + expectedSize);
+        }
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < (1 << 30) && (capacity >>> 1) < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * 3. Фабричний метод, в який передаються значення.
+     * (Окремий метод, а не конструктор, щоб не плутати з конструктором за розміром.)
+     * @param values Значення для додавання.
+     */
+    public static IntMySet of(int... values) {
+        IntMySet set = new IntMySet(values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    // --------------------------------------------------
+    // ОСНОВНІ ОПЕРАЦІЇ
+    // --------------------------------------------------
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return hasZero;
+        }
+        final int[] tab = keys;
+        final int mask = tab.length - 1;
+        for (int i = indexFor(value); ; i = (i + 1) & mask) {
+            int k = tab[i];
+            if (k == 0) return false;
+            if (k == value) return true;
+        }
+    }
+
+    /**
+     * Додає значення, якщо його ще немає.
+     * @return true, якщо значення додано.
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        final int[] tab = keys;
+        final int mask = tab.length - 1;
+        int i = indexFor(value);
+        for (int k; (k = tab[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) return false;
+        }
+        tab[i] = value;
+        size++;
+        if (size > (tab.length >>> 1)) {
+            resize(tab.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Видаляє значення (зсувом назад, без "надгробків").
+     * @return true, якщо значення було у множині.
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        final int[] tab = keys;
+        final int mask = tab.length - 1;
+        int i = indexFor(value);
+        for (int k; (k = tab[i]) != value; i = (i + 1) & mask) {
+            if (k == 0) return false;
+        }
+        for (int j = (i + 1) & mask; tab[j] != 0; j = (j + 1) & mask) {
+            int home = indexFor(tab[j]);
+            boolean staysInPlace = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!staysInPlace) {
+                tab[i] = tab[j];
+                i = j;
+            }
+        }
+        tab[i] = 0;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Обходить усі значення без упакування — основний "гарячий" шлях.
+     * @param action Дія над кожним значенням.
+     */
+    public void forEachInt(IntConsumer action) {
+        Objects.requireNonNull(action);
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                action.accept(k);
+            }
+        }
+    }
+
+    /**
+     * Повертає копію значень у вигляді масиву.
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int n = 0;
+        if (hasZero) {
+            result[n++] = 0;
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        forEachInt(value -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(value);
+        });
+        return sb.append(']').toString();
+    }
+
+    // --------------------------------------------------
+    // ДОПОМІЖНІ МЕТОДИ 
+    // --------------------------------------------------
+
+    private int indexFor(int value) {
+        return (value * 0x9E3779B9) >>> shift;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void resize(int newCapacity) {
+        int[] old = keys;
+        allocate(newCapacity);
+        final int mask = newCapacity - 1;
+        for (int k : old) {
+            if (k != 0) {
+                int i = indexFor(k);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+            }
+        }
+    }
+}
+
+/**
+ * Множина примітивних значень long без упакування (boxing) у Long.
+ * Значення лежать прямо в масиві long[] з відкритою адресацією (лінійне пробування),
+ * тому комірка таблиці займає лише 8 байтів замість об'єкта Long + вузла списку.
+ * Значення 0 використовується як позначка порожньої комірки, тому наявність нуля
+ * зберігається окремим прапорцем. Порядок обходу не визначений (як у HashSet).
+ */
+class LongMySet {
+
+    private static final int DEFAULT_CAPACITY = 16; // Степінь двійки
+
+    private long[] keys;         // Таблиця значень (0 — порожня комірка)
+    private boolean hasZero;    // Чи міститься в множині значення 0
+    private int size = 0;       // Кількість елементів (разом із нулем)
+    private int shift;          // 32 - log2(keys.length)
+
+    // --------------------------------------------------
+    // 1. КОНСТРУКТОРИ 
+    // --------------------------------------------------
+
+    /**
+     * 1. Порожній конструктор.
+     */
+    public LongMySet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 2. Конструктор із очікуваною кількістю елементів (щоб уникнути перебудов таблиці).
+     * @param expectedSize Очікувана кількість елементів.
+     */
+    public LongMySet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Розмір не може бути від'ємним: " + expectedSize);
+        }
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < (1 << 30) && (capacity >>> 1) < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * 3. Фабричний метод, в який передаються значення.
+     * (Окремий метод, а не конструктор, щоб не плутати з конструктором за розміром.)
+     * @param values Значення для додавання.
+     */
+    public static LongMySet of(long... values) {
+        LongMySet set = new LongMySet(values.length);
+        for (long value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    // --------------------------------------------------
+    // ОСНОВНІ ОПЕРАЦІЇ
+    // --------------------------------------------------
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return hasZero;
+        }
+        final long[] tab = keys;
+        final int mask = tab.length - 1;
+        for (int i = indexFor(value); ; i = (i + 1) & mask) {
+            long k = tab[i];
+            if (k == 0) return false;
+            if (k == value) return true;
+        }
+    }
+
+    /**
+     * Додає значення, якщо його ще немає.
+     * @return true, якщо значення додано.
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        final long[] tab = keys;
+        final int mask = tab.length - 1;
+        int i = indexFor(value);
+        for (long k; (k = tab[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) return false;
+        }
+        tab[i] = value;
+        size++;
+        if (size > (tab.length >>> 1)) {
+            resize(tab.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Видаляє значення (зсувом назад, без "надгробків").
+     * @return true, якщо значення було у множині.
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!hasZero) return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        final long[] tab = keys;
+        final int mask = tab.length - 1;
+        int i = indexFor(value);
+        for (long k; (k = tab[i]) != value; i = (i + 1) & mask) {
+            if (k == 0) return false;
+        }
+        for (int j = (i + 1) & mask; tab[j] != 0; j = (j + 1) & mask) {
+            int home = indexFor(tab[j]);
+            boolean staysInPlace = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!staysInPlace) {
+                tab[i] = tab[j];
+                i = j;
+            }
+        }
+        tab[i] = 0;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Обходить усі значення без упакування — основний "гарячий" шлях.
+     * @param action Дія над кожним значенням.
+     */
+    public void forEachLong(LongConsumer action) {
+        Objects.requireNonNull(action);
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (long k : keys) {
+            if (k != 0) {
+                action.accept(k);
+            }
+        }
+    }
+
+    /**
+     * Повертає копію значень у вигляді масиву.
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int n = 0;
+        if (hasZero) {
+            result[n++] = 0;
+        }
+        for (long k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        forEachLong(value -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(value);
+        });
+        return sb.append(']').toString();
+    }
+
+    // --------------------------------------------------
+    // ДОПОМІЖНІ МЕТОДИ 
+    // --------------------------------------------------
+
+    private int indexFor(long value) {
+        int h = (int) (value ^ (value >>> 32));
+        return (h * 0x9E3779B9) >>> shift;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void resize(int newCapacity) {
+        long[] old = keys;
+        allocate(newCapacity);
+        final int mask = newCapacity - 1;
+        for (long k : old) {
+            if (k != 0) {
+                int i = indexFor(k);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+            }
+        }
+    }
+}
+
+// ==========================================
+// ЗНІМОК (SNAPSHOT) КОЛЕКЦІЇ КАВИ НА ДИСКУ
+// ==========================================
+
+/**
+ * Двійковий формат знімка колекції кави та його збереження/завантаження.
+ * Структура файлу (big-endian):
+ *   [MAGIC:int][VERSION:int][count:int]
+ *   [запис 0]...[запис count-1]
+ *   [зміщення запису 0:long]...[зміщення запису count-1:long]
+ *   [зміщення таблиці зміщень:long]
+ * Запис: [тип:byte][price:double][weight:double][volume:double][quality:int]
+ *        [довжина назви:short][назва UTF-8] (+ [довжина упаковки:short][упаковка UTF-8] для розчинної).
+ * Таблиця зміщень у кінці дозволяє читати будь-який запис напряму, не розбираючи попередні.
+ */
+class CoffeeSnapshot {
+
+    static final int MAGIC = 0x43534E50; // "CSNP"
+    static final int VERSION = 1;
+
+    static final byte TYPE_BEANS = 1;
+    static final byte TYPE_GROUND = 2;
+    static final byte TYPE_INSTANT = 3;
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private CoffeeSnapshot() {
+    }
+
+    /**
+     * Зберігає колекцію кави у файл знімка.
+     * @param coffees Колекція для збереження.
+     * @param path Шлях до файлу (буде перезаписаний).
+     * @throws IOException Якщо запис не вдався.
+     */
+    public static void save(Collection<? extends Coffee> coffees, Path path) throws IOException {
+        long[] offsets = new long[coffees.size()];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(offsets.length);
+            long position = 3 * Integer.BYTES;
+            int i = 0;
+            for (Coffee coffee : coffees) {
+                if (i == offsets.length) {
+                    throw new ConcurrentModificationException();
+                }
+                offsets[i++] = position;
+                position += writeRecord(out, coffee);
+            }
+            if (i != offsets.length) {
+                throw new ConcurrentModificationException();
+            }
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            out.writeLong(position);
+        }
+    }
+
+    /**
+     * Відкриває знімок через FileChannel.map: файл відображається у пам'ять,
+     * а записи розбираються ліниво — лише при зверненні до них.
+     * @param path Шлях до файлу знімка.
+     * @return Список-представлення знімка тільки для читання.
+     * @throws IOException Якщо файл не вдалося прочитати або він пошкоджений.
+     */
+    public static MappedCoffeeSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Знімок завеликий для одного відображення (> 2 ГБ): " + path);
+            }
+            // Відображення лишається дійсним і після закриття каналу
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            return new MappedCoffeeSnapshot(buffer, path);
+        }
+    }
+
+    /**
+     * Завантажує знімок у новий MySet (через відображений файл).
+     * @param path Шлях до файлу знімка.
+     * @return Set з усіма елементами знімка.
+     * @throws IOException Якщо файл не вдалося прочитати або він пошкоджений.
+     */
+    public static MySet<Coffee> load(Path path) throws IOException {
+        return new MySet<>(open(path));
+    }
+
+    /**
+     * Записує один запис і повертає його довжину в байтах.
+     */
+    private static int writeRecord(DataOutputStream out, Coffee coffee) throws IOException {
+        byte type;
+        String baseName;
+        byte[] packaging = null;
+        if (coffee instanceof CoffeeBeans) {
+            type = TYPE_BEANS;
+            baseName = stripSuffix(coffee.getName(), CoffeeBeans.SUFFIX);
+        } else if (coffee instanceof GroundCoffee) {
+            type = TYPE_GROUND;
+            baseName = stripSuffix(coffee.getName(), GroundCoffee.SUFFIX);
+        } else if (coffee instanceof InstantCoffee) {
+            type = TYPE_INSTANT;
+            String packagingType = ((InstantCoffee) coffee).getPackagingType();
+            baseName = stripSuffix(coffee.getName(), InstantCoffee.suffixFor(packagingType));
+            packaging = encode(packagingType);
+        } else {
+            throw new IllegalArgumentException("Невідомий вид кави: " + coffee.getClass().getName());
+        }
+        byte[] name = encode(baseName);
+
+        out.writeByte(type);
+        out.writeDouble(coffee.getPrice());
+        out.writeDouble(coffee.getWeight());
+        out.writeDouble(coffee.getVolume());
+        out.writeInt(coffee.getQuality());
+        out.writeShort(name.length);
+        out.write(name);
+        int length = 1 + 3 * Double.BYTES + Integer.BYTES + Short.BYTES + name.length;
+        if (packaging != null) {
+            out.writeShort(packaging.length);
+            out.write(packaging);
+            length += Short.BYTES + packaging.length;
+        }
+        return length;
+    }
+
+    private static String stripSuffix(String name, String suffix) {
+        return name.endsWith(suffix) ? name.substring(0, name.length() - suffix.length()) : name;
+    }
+
+    private static byte[] encode(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Рядок задовгий для знімка: " + bytes.length + " байт");
+        }
+        return bytes;
+    }
+}
+
+/**
+ * Знімок, відображений у пам'ять. Відкриття коштує лише перевірки заголовка,
+ * а кожен елемент декодується при виклику get(). Читати можна з кількох потоків:
+ * використовуються тільки абсолютні (не позиційні) операції буфера.
+ */
+class MappedCoffeeSnapshot extends AbstractList<Coffee> implements RandomAccess {
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int tableOffset; // Початок таблиці зміщень
+
+    MappedCoffeeSnapshot(ByteBuffer buffer, Path path) throws IOException {
+        this.buffer = buffer;
+        int limit = buffer.limit();
+        if (limit < 3 * Integer.BYTES + Long.BYTES
+                || buffer.getInt(0) != CoffeeSnapshot.MAGIC
+                || buffer.getInt(Integer.BYTES) != CoffeeSnapshot.VERSION) {
+            throw new IOException("Файл не є знімком кави підтримуваної версії: " + path);
+        }
+        this.count = buffer.getInt(2 * Integer.BYTES);
+        long table = buffer.getLong(limit - Long.BYTES);
+        if (count < 0 || table < 0 || table + (long) count * Long.BYTES != limit - Long.BYTES) {
+            throw new IOException("Пошкоджена таблиця зміщень у знімку: " + path);
+        }
+        this.tableOffset = (int) table;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public Coffee get(int index) {
+        Objects.checkIndex(index, count);
+        int pos = (int) buffer.getLong(tableOffset + index * Long.BYTES);
+        byte type = buffer.get(pos);
+        double price = buffer.getDouble(pos + 1);
+        double weight = buffer.getDouble(pos + 1 + Double.BYTES);
+        double volume = buffer.getDouble(pos + 1 + 2 * Double.BYTES);
+        int quality = buffer.getInt(pos + 1 + 3 * Double.BYTES);
+        pos += 1 + 3 * Double.BYTES + Integer.BYTES;
+        String name = readString(pos);
+        switch (type) {
+            case CoffeeSnapshot.TYPE_BEANS:
+                return new CoffeeBeans(name, price, weight, volume, quality);
+            case CoffeeSnapshot.TYPE_GROUND:
+                return new GroundCoffee(name, price, weight, volume, quality);
+            case CoffeeSnapshot.TYPE_INSTANT:
+                String packaging = readString(pos + Short.BYTES + Short.toUnsignedInt(buffer.getShort(pos)));
+                return new InstantCoffee(name, price, weight, volume, quality, packaging);
+            default:
+                throw new IllegalStateException("Невідомий тип запису " + type + " у позиції " + index);
+        }
+    }
+
+    // Рядок зберігається як [довжина:short][байти UTF-8]
+    private String readString(int pos) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(pos))];
+        buffer.get(pos + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
+
+// ==========================================
+// ІЄРАРХІЯ З ЛАБОРАТОРНОЇ №5 
+// ==========================================
+
+abstract class Coffee {
+    private final String name;
+    private final double price;
+    private final double weight;
+    private final double volume;
+    private final int quality;
+    private int hash; // Кешований хеш-код (0 — ще не обчислено), як у String
+
+    public Coffee(String name, double price, double weight, double volume, int quality) {
+        this.name = name;
+        this.price = price;
+        this.weight = weight;
+        this.volume = volume;
+        this.quality = quality;
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public double getPrice() { return price; }
+    public double getWeight() { return weight; }
+    public double getVolume() { return volume; }
+    public int getQuality() { return quality; }
+
+    /**
+     * Вартість одного кілограма товару (як у Lab 5).
+     */
+    public double getPriceToWeightRatio() {
+        if (weight == 0) return 0;
+        return price / weight;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%-20s | Ціна: %.1f | Якість: %d", name, price, quality);
+    }
+
+    /**
+     * Порівнює каву за значенням: той самий вид (клас) і однакові всі поля.
+     * Завдяки цьому MySet не зберігає два однакові товари як різні елементи.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Coffee that = (Coffee) o;
+        return Double.compare(price, that.price) == 0 &&
+                Double.compare(weight, that.weight) == 0 &&
+                Double.compare(volume, that.volume) == 0 &&
+                quality == that.quality &&
+                Objects.equals(name, that.name);
+    }
+
+    /**
+     * Хеш-код узгоджений з equals(). Поля незмінні, тому він рахується один раз і кешується.
+     */
+    @Override
+    public final int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = computeHashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Обчислює хеш-код з полів; підкласи з додатковими полями розширюють цей метод.
+     */
+    protected int computeHashCode() {
+        return Objects.hash(name, price, weight, volume, quality);
+    }
+}
+
+class CoffeeBeans extends Coffee {
+    static final String SUFFIX = " (Зерно)";
+
+    public CoffeeBeans(String name, double price, double weight, double volume, int quality) {
+        super(name + SUFFIX, price, weight, volume, quality);
+    }
+}
+
+class GroundCoffee extends Coffee {
+    static final String SUFFIX = " (Мелена)";
+
+    public GroundCoffee(String name, double price, double weight, double volume, int quality) {
+        super(name + SUFFIX, price, weight, volume, quality);
+    }
+}
+
+class InstantCoffee extends Coffee {
+    private final String packagingType; // Тип упаковки
+
+    public InstantCoffee(String name, double price, double weight, double volume, int quality, String packaging) {
+        super(name + suffixFor(packaging), price, weight, volume, quality);
+        this.packagingType = packaging;
+    }
+
+    public String getPackagingType() { return packagingType; }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && Objects.equals(packagingType, ((InstantCoffee) o).packagingType);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        return 31 * super.computeHashCode() + Objects.hashCode(packagingType);
+    }
+
+    static String suffixFor(String packaging) {
+        return " (Розчинна, " + packaging + ")";
+    }
+}